@@ -0,0 +1,80 @@
+package com.expensetracker.benchmark;
+
+import com.expensetracker.ExpenseTrackerApplication;
+import com.expensetracker.controller.AuthController;
+import com.expensetracker.dto.RefreshRequest;
+import com.expensetracker.model.User;
+import com.expensetracker.repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Password login against refresh-token rotation, both ending in a new access
+ * token. Everything runs in process against H2 on one thread, so the time per
+ * operation is the CPU a client's renewal costs the server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class AuthBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private AuthController auth;
+    private User credentials;
+    private String refreshToken;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(ExpenseTrackerApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:auth;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_ON_EXIT=FALSE;"
+                                + "NON_KEYWORDS=USER,VALUE,MONTH,DAY,YEAR",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+
+        User user = new User();
+        user.setUsername("bench");
+        user.setPassword(context.getBean(PasswordEncoder.class).encode("bench-password"));
+        user.setRole("ROLE_USER");
+        context.getBean(UserRepository.class).save(user);
+
+        credentials = new User();
+        credentials.setUsername("bench");
+        credentials.setPassword("bench-password");
+
+        auth = context.getBean(AuthController.class);
+        refreshToken = (String) auth.login(credentials).get("refreshToken");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Map<String, Object> login() {
+        return auth.login(credentials);
+    }
+
+    // each call spends the previous token, as a client renewing its access token would
+    @Benchmark
+    public Map<String, Object> refresh() {
+        Map<String, Object> tokens = auth.refresh(new RefreshRequest(refreshToken));
+        refreshToken = (String) tokens.get("refreshToken");
+        return tokens;
+    }
+}
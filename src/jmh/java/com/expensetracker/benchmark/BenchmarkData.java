@@ -0,0 +1,55 @@
+package com.expensetracker.benchmark;
+
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+final class BenchmarkData {
+
+    static final String[] CATEGORIES = { "Food", "Groceries", "Rent", "Travel", "Fuel", "Utilities", "Health",
+            "Shopping", "Entertainment", "Education", "Gifts", "Insurance" };
+
+    static final String[] WORDS = { "coffee", "lunch", "dinner", "taxi", "train", "flight", "hotel", "market",
+            "pharmacy", "cinema", "books", "course", "petrol", "electricity", "water", "internet", "phone",
+            "gym", "shoes", "jacket", "birthday", "wedding", "doctor", "dentist", "insurance", "rent" };
+
+    private BenchmarkData() {
+    }
+
+    static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("bench-" + id);
+        user.setRole("ROLE_USER");
+        return user;
+    }
+
+    // deterministic synthetic history spread over the two years before now
+    static List<Expense> expenses(int count, long seed) {
+        Random random = new Random(seed);
+        LocalDateTime now = LocalDateTime.now();
+        List<Expense> expenses = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            Expense e = new Expense();
+            e.setId((long) i + 1);
+            e.setTitle(word(random) + " " + word(random));
+            e.setAmount(Math.round(random.nextDouble() * 50_000) / 100.0);
+            e.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            e.setNote(random.nextInt(4) == 0 ? word(random) + " with " + word(random) : null);
+            e.setTags(random.nextInt(3) == 0 ? word(random) + "," + word(random) : null);
+            e.setDate(now.minusMinutes(random.nextInt(2 * 365 * 24 * 60)));
+            e.setActive(true);
+            expenses.add(e);
+        }
+        return expenses;
+    }
+
+    private static String word(Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+}
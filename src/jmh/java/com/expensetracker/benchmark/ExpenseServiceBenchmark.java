@@ -0,0 +1,139 @@
+package com.expensetracker.benchmark;
+
+import com.expensetracker.ExpenseTrackerApplication;
+import com.expensetracker.dto.CursorPage;
+import com.expensetracker.dto.ExpenseView;
+import com.expensetracker.dto.SearchPage;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.User;
+import com.expensetracker.repository.ExpenseJdbcRepository;
+import com.expensetracker.repository.UserRepository;
+import com.expensetracker.security.AuthenticatedUser;
+import com.expensetracker.service.CategoryService;
+import com.expensetracker.service.ExpenseRollupService;
+import com.expensetracker.service.ExpenseService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ExpenseServiceBenchmark {
+
+    private static final int SEED_CHUNK = 10_000;
+
+    @State(Scope.Benchmark)
+    public static class Dataset {
+
+        @Param({ "1000", "10000", "100000", "1000000" })
+        public int expenses;
+
+        ConfigurableApplicationContext context;
+        ExpenseService service;
+        Long userId;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            // command-line arguments outrank application.properties
+            context = new SpringApplicationBuilder(ExpenseTrackerApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .run(
+                            "--spring.datasource.url=jdbc:h2:mem:bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_ON_EXIT=FALSE;"
+                                    + "NON_KEYWORDS=USER,VALUE,MONTH,DAY,YEAR",
+                            "--spring.datasource.username=sa",
+                            "--spring.datasource.password=",
+                            "--spring.jpa.hibernate.ddl-auto=create-drop",
+                            "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                            "--spring.jpa.show-sql=false",
+                            "--logging.level.root=WARN");
+
+            User user = new User();
+            user.setUsername("bench");
+            user.setPassword("-");
+            user.setRole("ROLE_USER");
+            userId = context.getBean(UserRepository.class).save(user).getId();
+
+            ExpenseJdbcRepository jdbc = context.getBean(ExpenseJdbcRepository.class);
+            CategoryService categories = context.getBean(CategoryService.class);
+            List<Expense> rows = BenchmarkData.expenses(expenses, 11);
+            for (Expense e : rows) {
+                e.setCategoryId(categories.resolve(userId, e.getCategory()));
+            }
+            for (int from = 0; from < rows.size(); from += SEED_CHUNK) {
+                jdbc.insertAll(userId, rows.subList(from, Math.min(from + SEED_CHUNK, rows.size())));
+            }
+            context.getBean(ExpenseRollupService.class).rebuildAll();
+
+            service = context.getBean(ExpenseService.class);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Caller {
+
+        String monthStart;
+        String today;
+        String yearAgo;
+
+        @Setup(Level.Trial)
+        public void authenticate(Dataset data) {
+            AuthenticatedUser principal = new AuthenticatedUser(data.userId, "bench", "ROLE_USER");
+            SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                    principal, null, List.of(new SimpleGrantedAuthority(principal.role()))));
+
+            today = LocalDate.now().toString();
+            monthStart = LocalDate.now().withDayOfMonth(1).toString();
+            yearAgo = LocalDate.now().minusYears(1).toString();
+
+            // load the search index outside the measurement
+            data.service.searchExpenses("coffee", 0, 1);
+        }
+    }
+
+    @Benchmark
+    public Map<String, Object> categoryWiseSummaryMonth(Dataset data, Caller caller) {
+        return data.service.getCategoryWiseSummary("custom", caller.monthStart, caller.today);
+    }
+
+    @Benchmark
+    public Map<String, Object> trends24Months(Dataset data, Caller caller) {
+        return data.service.getTrends(24);
+    }
+
+    @Benchmark
+    public Map<String, Double> dailySummaryYear(Dataset data, Caller caller) {
+        return data.service.getDailySummary(caller.yearAgo, caller.today);
+    }
+
+    @Benchmark
+    public CursorPage<ExpenseView> sortedFirstPageByDate(Dataset data, Caller caller) {
+        return data.service.getSortedExpenses("date", "desc", null, 50);
+    }
+
+    @Benchmark
+    public CursorPage<ExpenseView> sortedFirstPageByAmount(Dataset data, Caller caller) {
+        return data.service.getSortedExpenses("amount", "desc", null, 50);
+    }
+
+    @Benchmark
+    public SearchPage<ExpenseView> searchTwoTerms(Dataset data, Caller caller) {
+        return data.service.searchExpenses("coffee tax", 0, 20);
+    }
+}
@@ -0,0 +1,54 @@
+package com.expensetracker.benchmark;
+
+import com.expensetracker.model.User;
+import com.expensetracker.security.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    // larger than the verified-token cache, so most lookups miss and verify the signature
+    private static final int DISTINCT_TOKENS = 50_000;
+
+    private JwtUtil jwtUtil;
+    private User user;
+    private String token;
+    private String[] tokens;
+    private int next;
+
+    @Setup
+    public void setup() {
+        jwtUtil = new JwtUtil();
+        user = BenchmarkData.user(42);
+        token = jwtUtil.generateToken(user);
+
+        tokens = new String[DISTINCT_TOKENS];
+        for (int i = 0; i < DISTINCT_TOKENS; i++) {
+            User u = BenchmarkData.user(i + 1);
+            tokens[i] = jwtUtil.generateToken(u);
+        }
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public boolean validateTokenCached() {
+        return jwtUtil.validateToken(token, user.getUsername());
+    }
+
+    @Benchmark
+    public boolean validateTokenMostlyUncached() {
+        int i = next++ % DISTINCT_TOKENS;
+        return jwtUtil.validateToken(tokens[i], "bench-" + (i + 1));
+    }
+}
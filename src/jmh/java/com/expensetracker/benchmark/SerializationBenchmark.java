@@ -0,0 +1,96 @@
+package com.expensetracker.benchmark;
+
+import com.expensetracker.model.Expense;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Reflective JSON (the previous setup) against JSON with Blackbird, Smile and CBOR.
+ * Setup prints the payload size of each format, plus gzipped JSON as served
+ * with compression on.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({ "50", "200", "10000" })
+    private int size;
+
+    private ObjectMapper mapper;
+    private ObjectMapper blackbird;
+    private ObjectMapper smile;
+    private ObjectMapper cbor;
+    private List<Expense> expenses;
+
+    @Setup
+    public void setup() throws IOException {
+        // same date handling as the application's Boot-configured mapper; modules are listed
+        // explicitly because Blackbird would otherwise be picked up from the classpath
+        mapper = JsonMapper.builder()
+                .addModules(new Jdk8Module(), new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        blackbird = JsonMapper.builder()
+                .addModules(new Jdk8Module(), new JavaTimeModule(), new BlackbirdModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        smile = SmileMapper.builder()
+                .addModules(new Jdk8Module(), new JavaTimeModule(), new BlackbirdModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        cbor = CBORMapper.builder()
+                .addModules(new Jdk8Module(), new JavaTimeModule(), new BlackbirdModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        expenses = BenchmarkData.expenses(size, 7);
+
+        byte[] json = mapper.writeValueAsBytes(expenses);
+        System.out.printf("%n%d expenses: json=%dB json+gzip=%dB smile=%dB cbor=%dB%n", size, json.length,
+                gzip(json).length, smile.writeValueAsBytes(expenses).length, cbor.writeValueAsBytes(expenses).length);
+    }
+
+    @Benchmark
+    public byte[] serializeJson() throws Exception {
+        return mapper.writeValueAsBytes(expenses);
+    }
+
+    @Benchmark
+    public byte[] serializeJsonBlackbird() throws Exception {
+        return blackbird.writeValueAsBytes(expenses);
+    }
+
+    @Benchmark
+    public byte[] serializeSmile() throws Exception {
+        return smile.writeValueAsBytes(expenses);
+    }
+
+    @Benchmark
+    public byte[] serializeCbor() throws Exception {
+        return cbor.writeValueAsBytes(expenses);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
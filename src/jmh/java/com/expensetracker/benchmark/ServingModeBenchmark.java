@@ -0,0 +1,153 @@
+package com.expensetracker.benchmark;
+
+import com.expensetracker.ExpenseTrackerApplication;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.User;
+import com.expensetracker.repository.ExpenseJdbcRepository;
+import com.expensetracker.repository.UserRepository;
+import com.expensetracker.security.JwtUtil;
+import com.expensetracker.service.CategoryService;
+import com.expensetracker.service.ExpenseRollupService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Many small concurrent requests against a running server, once on Tomcat's
+ * platform-thread pool and once on virtual threads. Client threads outnumber
+ * Tomcat's 200 worker threads so the platform mode has to queue.
+ * Throughput mode gives requests per second, SampleTime mode the p99 latency.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Threads(400)
+@Fork(value = 1, jvmArgsAppend = "-Djdk.tracePinnedThreads=short")
+public class ServingModeBenchmark {
+
+    private static final int USERS = 100;
+    private static final int EXPENSES_PER_USER = 1000;
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    @State(Scope.Benchmark)
+    public static class Server {
+
+        @Param({ "false", "true" })
+        public boolean virtualThreads;
+
+        ConfigurableApplicationContext context;
+        HttpClient http;
+        String baseUrl;
+        String[] tokens = new String[USERS];
+
+        @Setup(Level.Trial)
+        public void setup() {
+            context = new SpringApplicationBuilder(ExpenseTrackerApplication.class)
+                    .run(
+                            "--spring.datasource.url=jdbc:h2:mem:serving;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+                                    + "DB_CLOSE_ON_EXIT=FALSE;NON_KEYWORDS=USER,VALUE,MONTH,DAY,YEAR",
+                            "--spring.datasource.username=sa",
+                            "--spring.datasource.password=",
+                            "--spring.jpa.hibernate.ddl-auto=create-drop",
+                            "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                            "--spring.threads.virtual.enabled=" + virtualThreads,
+                            "--server.port=0",
+                            "--management.server.port=-1",
+                            "--logging.level.root=WARN");
+
+            UserRepository users = context.getBean(UserRepository.class);
+            ExpenseJdbcRepository jdbc = context.getBean(ExpenseJdbcRepository.class);
+            CategoryService categories = context.getBean(CategoryService.class);
+            JwtUtil jwt = context.getBean(JwtUtil.class);
+
+            for (int i = 0; i < USERS; i++) {
+                User user = new User();
+                user.setUsername("load-" + i);
+                user.setPassword("-");
+                user.setRole("ROLE_USER");
+                user = users.save(user);
+
+                List<Expense> rows = BenchmarkData.expenses(EXPENSES_PER_USER, i);
+                for (Expense e : rows) {
+                    e.setCategoryId(categories.resolve(user.getId(), e.getCategory()));
+                }
+                jdbc.insertAll(user.getId(), rows);
+                tokens[i] = "Bearer " + jwt.generateToken(user);
+            }
+            context.getBean(ExpenseRollupService.class).rebuildAll();
+
+            http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    // failed requests are counted rather than thrown, so an overloaded mode still reports
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Client {
+
+        public long errors;
+
+        HttpClient http;
+        HttpRequest page;
+        HttpRequest summary;
+
+        @Setup(Level.Trial)
+        public void setup(Server server) {
+            http = server.http;
+            String token = server.tokens[(int) (Thread.currentThread().threadId() % USERS)];
+            String from = LocalDate.now().withDayOfMonth(1).toString();
+            String to = LocalDate.now().toString();
+
+            page = HttpRequest.newBuilder(URI.create(server.baseUrl + "/expenses?size=20"))
+                    .header("Authorization", token)
+                    .timeout(TIMEOUT)
+                    .build();
+            summary = HttpRequest.newBuilder(URI.create(server.baseUrl
+                    + "/expenses/summary/categories?period=custom&start=" + from + "&end=" + to))
+                    .header("Authorization", token)
+                    .timeout(TIMEOUT)
+                    .build();
+        }
+    }
+
+    @Benchmark
+    public int firstPage(Client client) throws IOException, InterruptedException {
+        return send(client, client.page);
+    }
+
+    @Benchmark
+    public int categorySummary(Client client) throws IOException, InterruptedException {
+        return send(client, client.summary);
+    }
+
+    private static int send(Client client, HttpRequest request) throws IOException, InterruptedException {
+        try {
+            HttpResponse<byte[]> response = client.http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                client.errors++;
+            }
+            return response.body().length;
+        } catch (HttpTimeoutException e) {
+            client.errors++;
+            return 0;
+        }
+    }
+}
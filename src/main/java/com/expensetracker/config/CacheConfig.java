@@ -0,0 +1,67 @@
+package com.expensetracker.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hibernate second-level cache regions, backed by Caffeine through JCache.
+ * The cache is local to each instance: writes made here evict or update it
+ * immediately, and writes from other instances become visible once the
+ * entries expire, so the TTL bounds cross-instance staleness. Only lookups by
+ * id are cached; there is no query cache, because list endpoints are tagged
+ * with the user's data version and must never serve results older than it.
+ */
+@Configuration
+public class CacheConfig {
+
+    public static final String USER_REGION = "user";
+    public static final String BUDGET_REGION = "budget";
+    public static final String RECURRING_REGION = "recurringExpense";
+
+    public static final List<String> ENTITY_REGIONS = List.of(USER_REGION, BUDGET_REGION, RECURRING_REGION);
+
+    @Value("${cache.l2.max-entries:10000}")
+    private long maxEntries;
+
+    @Value("${cache.l2.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager manager = provider.getCacheManager(URI.create("urn:expensetracker:l2:" + UUID.randomUUID()),
+                getClass().getClassLoader());
+
+        for (String region : ENTITY_REGIONS) {
+            manager.createCache(region, bounded());
+        }
+        return manager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    private CaffeineConfiguration<Object, Object> bounded() {
+        CaffeineConfiguration<Object, Object> config = new CaffeineConfiguration<>();
+        config.setMaximumSize(OptionalLong.of(maxEntries));
+        config.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds)));
+        config.setStatisticsEnabled(true);
+        return config;
+    }
+}
@@ -0,0 +1,52 @@
+package com.expensetracker.config;
+
+import com.expensetracker.security.AuthenticatedUser;
+import com.expensetracker.service.DataVersionService;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Tags GET responses with the user's data version and answers a matching
+ * If-None-Match with 304 before the handler runs. The current date is part of
+ * the tag because day, week and month periods move with the calendar.
+ * The tag is only sound while every source behind these endpoints either reads
+ * the database or checks its cached copy against the data version, as the
+ * search index, analytics snapshots and budget tracker do.
+ */
+@Component
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+    @Autowired
+    private DataVersionService versions;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // async dispatches (streamed exports) were already checked on the original request
+        if (!HttpMethod.GET.matches(request.getMethod()) || request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+        Long userId = AuthenticatedUser.current().id();
+
+        // read before the handler loads anything: a write racing this request can only
+        // pair newer data with an older tag, which costs the client one extra full response
+        String etag = "W/\"" + userId + "-" + versions.current(userId) + "-" + LocalDate.now().toEpochDay() + "-"
+                + Integer.toHexString(Objects.hashCode(request.getHeader(HttpHeaders.ACCEPT))) + "\"";
+
+        // JSON, Smile and CBOR bodies differ, so the Accept header is part of the tag; it is
+        // weak because the same body may also go out gzipped, and Tomcat never compresses
+        // responses carrying a strong tag
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        return !new ServletWebRequest(request, response).checkNotModified(etag);
+    }
+}
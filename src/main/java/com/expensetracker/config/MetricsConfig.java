@@ -0,0 +1,43 @@
+package com.expensetracker.config;
+
+import com.expensetracker.metrics.RequestRows;
+import com.expensetracker.security.JwtUtil;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.Interceptor;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.type.Type;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer rowCountingCustomizer() {
+        Interceptor countLoads = new Interceptor() {
+            @Override
+            public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+                RequestRows.add(1);
+                return false;
+            }
+        };
+        return properties -> properties.put(AvailableSettings.INTERCEPTOR, countLoads);
+    }
+
+    @Bean
+    public MeterBinder jwtCacheMetrics(JwtUtil jwtUtil) {
+        return registry -> {
+            FunctionCounter.builder("jwt.cache.requests", jwtUtil, JwtUtil::getCacheHits)
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("jwt.cache.requests", jwtUtil, JwtUtil::getCacheMisses)
+                    .tag("result", "miss")
+                    .register(registry);
+            Gauge.builder("jwt.cache.size", jwtUtil, JwtUtil::getCacheSize)
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,21 @@
+package com.expensetracker.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private ConditionalGetInterceptor conditionalGet;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(conditionalGet)
+                .addPathPatterns("/expenses", "/expenses/**", "/budgets", "/budgets/**", "/recurring",
+                        "/recurring/**")
+                .excludePathPatterns("/expenses/test");
+    }
+}
@@ -0,0 +1,70 @@
+package com.expensetracker.controller;
+
+import com.expensetracker.config.CacheConfig;
+import com.expensetracker.security.JwtUtil;
+import com.expensetracker.service.ExpenseRollupService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin")
+public class AdminController {
+
+    @Autowired
+    private ExpenseRollupService rollupService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @PostMapping("/rollups/rebuild")
+    public Map<String, Object> rebuildRollups() {
+        return Map.of("usersRebuilt", rollupService.rebuildAll());
+    }
+
+    @GetMapping("/jwt-cache")
+    public Map<String, Object> jwtCacheStats() {
+        return Map.of(
+                "hits", jwtUtil.getCacheHits(),
+                "misses", jwtUtil.getCacheMisses(),
+                "size", jwtUtil.getCacheSize());
+    }
+
+    @GetMapping("/l2-cache")
+    public Map<String, Object> secondLevelCacheStats() {
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String region : CacheConfig.ENTITY_REGIONS) {
+            regions.put(region, regionStats(stats.getDomainDataRegionStatistics(region)));
+        }
+        return regions;
+    }
+
+    @PostMapping("/l2-cache/evict")
+    public Map<String, Object> evictSecondLevelCache() {
+        emf.unwrap(SessionFactory.class).getCache().evictAll();
+        return Map.of("evicted", true);
+    }
+
+    private Map<String, Object> regionStats(CacheRegionStatistics region) {
+        long hits = region.getHitCount();
+        long misses = region.getMissCount();
+
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put("hits", hits);
+        res.put("misses", misses);
+        res.put("puts", region.getPutCount());
+        res.put("hitRatio", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        return res;
+    }
+}
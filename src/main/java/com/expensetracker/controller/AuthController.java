@@ -3,11 +3,18 @@ package com.expensetracker.controller;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import com.expensetracker.dto.RefreshRequest;
 import com.expensetracker.model.User;
 import com.expensetracker.repository.UserRepository;
 import com.expensetracker.security.JwtUtil;
+import com.expensetracker.service.RefreshTokenService;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/auth")
@@ -34,15 +41,40 @@ public class AuthController {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private RefreshTokenService refreshTokens;
+
     @PostMapping("/login")
-    public String login(@RequestBody User user) {
+    public Map<String, Object> login(@RequestBody User user) {
         User dbUser = repo.findByUsername(user.getUsername())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         if (encoder.matches(user.getPassword(), dbUser.getPassword())) {
-            return jwtUtil.generateToken(user.getUsername());
+            return tokens(dbUser, refreshTokens.issue(dbUser.getId()));
         }
         // System.out.println("Login API HIT");
         throw new RuntimeException("Invalid credentials");
     }
-}
\ No newline at end of file
+
+    // trades a refresh token for a new access token and a new refresh token; the old one is spent
+    @PostMapping("/refresh")
+    public Map<String, Object> refresh(@RequestBody RefreshRequest request) {
+        if (request.refreshToken() == null || request.refreshToken().isBlank()) {
+            throw new IllegalArgumentException("refreshToken is required");
+        }
+        RefreshTokenService.Rotation rotation = refreshTokens.rotate(request.refreshToken())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid refresh token"));
+
+        User dbUser = repo.findById(rotation.userId())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        return tokens(dbUser, rotation.token());
+    }
+
+    private Map<String, Object> tokens(User user, String refreshToken) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("accessToken", jwtUtil.generateToken(user));
+        body.put("refreshToken", refreshToken);
+        body.put("expiresIn", jwtUtil.getAccessTokenTtlSeconds());
+        return body;
+    }
+}
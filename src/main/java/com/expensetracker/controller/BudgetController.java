@@ -1,5 +1,6 @@
 package com.expensetracker.controller;
 
+import com.expensetracker.dto.BudgetStatus;
 import com.expensetracker.model.Budget;
 import com.expensetracker.service.BudgetService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,6 +23,11 @@ public class BudgetController {
         return service.getBudgets();
     }
 
+    @GetMapping("/status")
+    public List<BudgetStatus> getBudgetStatus() {
+        return service.getBudgetStatus();
+    }
+
     @DeleteMapping("/{id}")
     public void deleteBudget(@PathVariable Long id) {
         service.deleteBudget(id);
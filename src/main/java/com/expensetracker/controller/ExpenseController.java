@@ -1,10 +1,25 @@
 package com.expensetracker.controller;
 
+import com.expensetracker.dto.BulkDeleteRequest;
+import com.expensetracker.dto.BulkUpdateRequest;
+import com.expensetracker.dto.CursorPage;
+import com.expensetracker.dto.ExpenseView;
+import com.expensetracker.dto.ImportResult;
+import com.expensetracker.dto.SearchPage;
 import com.expensetracker.model.Expense;
+import com.expensetracker.service.ExpenseExportService;
+import com.expensetracker.service.ExpenseImportService;
 import com.expensetracker.service.ExpenseService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -15,33 +30,87 @@ public class ExpenseController {
     @Autowired
     private ExpenseService service;
 
+    @Autowired
+    private ExpenseImportService importService;
+
+    @Autowired
+    private ExpenseExportService exportService;
+
     @PostMapping
     public Expense addExpense(@RequestBody Expense expense) {
         return service.addExpense(expense);
     }
 
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ImportResult importJson(InputStream body) throws IOException {
+        return importService.importJson(body);
+    }
+
+    @PostMapping(value = "/bulk", consumes = "text/csv")
+    public ImportResult importCsv(InputStream body) throws IOException {
+        return importService.importCsv(body);
+    }
+
     @DeleteMapping("/{id}")
     public void deleteExpense(@PathVariable Long id) {
         service.deleteExpense(id);
     }
 
+    @PostMapping("/bulk/delete")
+    public Map<String, Object> deleteExpenses(@RequestBody BulkDeleteRequest request) {
+        return Map.of("deleted", service.deleteExpenses(request.ids()));
+    }
+
+    @PostMapping("/bulk/recategorize")
+    public Map<String, Object> recategorizeExpenses(@RequestBody BulkUpdateRequest request) {
+        return Map.of("updated", service.recategorizeExpenses(request.category(), startOf(request.start()),
+                endOf(request.end()), request.minAmount(), request.maxAmount(), request.newCategory()));
+    }
+
+    @PostMapping("/bulk/retag")
+    public Map<String, Object> retagExpenses(@RequestBody BulkUpdateRequest request) {
+        return Map.of("updated", service.retagExpenses(request.category(), startOf(request.start()),
+                endOf(request.end()), request.minAmount(), request.maxAmount(), request.tags()));
+    }
+
     @GetMapping("/test")
     public String test() {
         return "Expense Tracker API Working!!";
     }
 
     @GetMapping
-    public List<Expense> getExpenses(
+    public CursorPage<ExpenseView> getExpenses(
             @RequestParam(required = false) String category,
             @RequestParam(required = false) String start,
             @RequestParam(required = false) String end,
             @RequestParam(required = false) Double minAmount,
-            @RequestParam(required = false) Double maxAmount) {
+            @RequestParam(required = false) Double maxAmount,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
 
         LocalDateTime startDate = start != null ? LocalDateTime.parse(start + "T00:00:00") : null;
         LocalDateTime endDate = end != null ? LocalDateTime.parse(end + "T23:59:59") : null;
 
-        return service.getFilteredExpenses(category, startDate, endDate, minAmount, maxAmount);
+        return service.getFilteredExpenses(category, startDate, endDate, minAmount, maxAmount, cursor, size,
+                includeArchived);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportExpenses(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) String start,
+            @RequestParam(required = false) String end) {
+
+        LocalDateTime startDate = start != null ? LocalDateTime.parse(start + "T00:00:00") : null;
+        LocalDateTime endDate = end != null ? LocalDateTime.parse(end + "T23:59:59") : null;
+
+        boolean ndjson = format.equalsIgnoreCase("ndjson");
+        return ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.parseMediaType("text/csv"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"expenses." + (ndjson ? "ndjson" : "csv") + "\"")
+                .body(exportService.export(format, startDate, endDate));
     }
 
     @GetMapping("/summary")
@@ -63,6 +132,20 @@ public class ExpenseController {
         return service.getCategoryWiseSummary(period, start, end);
     }
 
+    @GetMapping("/dashboard")
+    public Map<String, Object> getDashboard(
+            @RequestParam(defaultValue = "month") String period,
+            @RequestParam(required = false) String start,
+            @RequestParam(required = false) String end) {
+
+        return service.getDashboard(period, start, end);
+    }
+
+    @GetMapping("/trends")
+    public Map<String, Object> getTrends(@RequestParam(defaultValue = "12") int months) {
+        return service.getTrends(months);
+    }
+
     @GetMapping("/summary/daily")
     public Map<String, Double> getDailySummary(
             @RequestParam String start,
@@ -77,15 +160,28 @@ public class ExpenseController {
     }
 
     @GetMapping("/search")
-    public List<Expense> searchExpenses(@RequestParam String keyword) {
-        return service.searchExpenses(keyword);
+    public SearchPage<ExpenseView> searchExpenses(
+            @RequestParam String keyword,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size) {
+        return service.searchExpenses(keyword, page, size);
     }
 
     @GetMapping("/sorted")
-    public List<Expense> getSortedExpenses(
+    public CursorPage<ExpenseView> getSortedExpenses(
             @RequestParam(defaultValue = "date") String sortBy,
-            @RequestParam(defaultValue = "desc") String order) {
-        return service.getSortedExpenses(sortBy, order);
+            @RequestParam(defaultValue = "desc") String order,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return service.getSortedExpenses(sortBy, order, cursor, size);
+    }
+
+    private static LocalDateTime startOf(LocalDate day) {
+        return day != null ? day.atStartOfDay() : null;
+    }
+
+    private static LocalDateTime endOf(LocalDate day) {
+        return day != null ? day.atTime(23, 59, 59) : null;
     }
 
 }
\ No newline at end of file
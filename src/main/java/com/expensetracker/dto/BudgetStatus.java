@@ -0,0 +1,9 @@
+package com.expensetracker.dto;
+
+import com.expensetracker.model.BudgetPeriod;
+
+import java.time.LocalDate;
+
+public record BudgetStatus(Long budgetId, String category, BudgetPeriod period, LocalDate from, LocalDate to,
+        double limit, double spent, double remaining, String status) {
+}
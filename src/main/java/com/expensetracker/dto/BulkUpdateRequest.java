@@ -0,0 +1,8 @@
+package com.expensetracker.dto;
+
+import java.time.LocalDate;
+
+// the filter fields match GET /expenses; newCategory or tags is the value written
+public record BulkUpdateRequest(String category, LocalDate start, LocalDate end, Double minAmount,
+        Double maxAmount, String newCategory, String tags) {
+}
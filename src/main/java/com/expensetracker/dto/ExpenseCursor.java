@@ -0,0 +1,28 @@
+package com.expensetracker.dto;
+
+import com.expensetracker.repository.ExpenseSort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public record ExpenseCursor(ExpenseSort sort, boolean desc, Object key, Long id) {
+
+    public String encode() {
+        String raw = sort.name() + ":" + (desc ? "d" : "a") + ":" + id + ":" + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ExpenseCursor decode(String cursor, ExpenseSort sort, boolean desc) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 4);
+
+            if (ExpenseSort.valueOf(parts[0]) != sort || parts[1].equals("d") != desc) {
+                throw new IllegalArgumentException("Cursor does not match the requested sort");
+            }
+            return new ExpenseCursor(sort, desc, sort.parseKey(parts[3]), Long.valueOf(parts[2]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.expensetracker.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+
+// read model for the list endpoints: the columns they return, no managed entity behind it
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ExpenseView(Long id, String title, double amount, String category, String note, String tags,
+        Boolean active, LocalDateTime date, Boolean archived) {
+
+    public ExpenseView(Long id, String title, double amount, String category, String note, String tags,
+            Boolean active, LocalDateTime date) {
+        this(id, title, amount, category, note, tags, active, date, null);
+    }
+}
@@ -0,0 +1,9 @@
+package com.expensetracker.dto;
+
+import java.util.List;
+
+public record ImportResult(int imported, int failed, List<RowError> errors) {
+
+    public record RowError(int row, String message) {
+    }
+}
@@ -0,0 +1,5 @@
+package com.expensetracker.dto;
+
+// one category's month: change is against the previous month, averages are over the trailing 3 and 6 months
+public record MonthTrend(String month, double total, double change, double movingAverage3, double movingAverage6) {
+}
@@ -0,0 +1,6 @@
+package com.expensetracker.dto;
+
+import java.util.Map;
+
+public record PeriodSummary(double total, Map<String, Double> categoryTotals, Map<String, Double> dailyTotals) {
+}
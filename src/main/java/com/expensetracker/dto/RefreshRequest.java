@@ -0,0 +1,4 @@
+package com.expensetracker.dto;
+
+public record RefreshRequest(String refreshToken) {
+}
@@ -0,0 +1,6 @@
+package com.expensetracker.dto;
+
+import java.util.List;
+
+public record SearchPage<T>(List<T> items, int page, int size, long total) {
+}
@@ -0,0 +1,14 @@
+package com.expensetracker.event;
+
+import com.expensetracker.model.BudgetPeriod;
+
+import java.time.LocalDate;
+
+public record BudgetThresholdEvent(Long userId, Long budgetId, String category, BudgetPeriod period,
+        LocalDate periodStart, Level level, double spent, double limit) {
+
+    public enum Level {
+        WARNING,
+        EXCEEDED
+    }
+}
@@ -0,0 +1,19 @@
+package com.expensetracker.event;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+@Component
+public class BudgetThresholdListener {
+
+    private static final Logger log = LoggerFactory.getLogger(BudgetThresholdListener.class);
+
+    @EventListener
+    public void onThreshold(BudgetThresholdEvent event) {
+        log.info("User {} reached {} on {} budget {} ({}): spent {} of {}", event.userId(), event.level(),
+                event.period(), event.budgetId(), event.category() != null ? event.category() : "all categories",
+                event.spent(), event.limit());
+    }
+}
@@ -0,0 +1,31 @@
+package com.expensetracker.metrics;
+
+/**
+ * Counts the rows read on the current request thread, so the number of
+ * entities and scanned rows behind each endpoint can be recorded.
+ */
+public final class RequestRows {
+
+    private static final ThreadLocal<long[]> COUNT = new ThreadLocal<>();
+
+    private RequestRows() {
+    }
+
+    static void begin() {
+        COUNT.set(new long[1]);
+    }
+
+    static long end() {
+        long[] count = COUNT.get();
+        COUNT.remove();
+        return count == null ? 0 : count[0];
+    }
+
+    // work outside a request (scheduled jobs, startup) is not counted
+    public static void add(long rows) {
+        long[] count = COUNT.get();
+        if (count != null) {
+            count[0] += rows;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.expensetracker.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+@Component
+public class RequestRowsFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestRows.begin();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            long rows = RequestRows.end();
+            Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (uri != null) {
+                DistributionSummary.builder("http.server.requests.rows")
+                        .description("Entities and rows read from the database per request")
+                        .tag("method", request.getMethod())
+                        .tag("uri", uri.toString())
+                        .publishPercentileHistogram()
+                        .register(registry)
+                        .record(rows);
+            }
+        }
+    }
+}
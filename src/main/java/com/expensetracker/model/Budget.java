@@ -1,9 +1,15 @@
 package com.expensetracker.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "budget")
+@Table(indexes = @Index(name = "idx_budget_user_category_id", columnList = "user_id, category_id"))
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class Budget {
     @Id
@@ -11,8 +17,20 @@ public class Budget {
     private Long id;
 
     private String category;
+
+    @Column(name = "category_id")
+    @JsonIgnore
+    private Long categoryId;
     private double limitAmount;
 
+    @Enumerated(EnumType.STRING)
+    private BudgetPeriod period = BudgetPeriod.MONTHLY;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
+    @JsonIgnore
+    private User user;
+
     public Budget() {
     }
 
@@ -37,6 +55,14 @@ public class Budget {
         this.category = category;
     }
 
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+
     public double getLimitAmount() {
         return limitAmount;
     }
@@ -44,4 +70,20 @@ public class Budget {
     public void setLimitAmount(double limitAmount) {
         this.limitAmount = limitAmount;
     }
+
+    public BudgetPeriod getPeriod() {
+        return period;
+    }
+
+    public void setPeriod(BudgetPeriod period) {
+        this.period = period;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
 }
@@ -0,0 +1,31 @@
+package com.expensetracker.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+public enum BudgetPeriod {
+    WEEKLY,
+    MONTHLY;
+
+    @JsonCreator
+    public static BudgetPeriod from(String period) {
+        if (period == null) {
+            return MONTHLY;
+        }
+        return switch (period.toLowerCase()) {
+            case "weekly", "week" -> WEEKLY;
+            case "monthly", "month" -> MONTHLY;
+            default -> throw new IllegalArgumentException("Invalid budget period");
+        };
+    }
+
+    public LocalDate startOf(LocalDate day) {
+        return this == WEEKLY ? day.with(DayOfWeek.MONDAY) : day.withDayOfMonth(1);
+    }
+
+    public LocalDate endOf(LocalDate day) {
+        return this == WEEKLY ? startOf(day).plusDays(6) : startOf(day).plusMonths(1).minusDays(1);
+    }
+}
@@ -0,0 +1,32 @@
+package com.expensetracker.model;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "user_data_version")
+public class DataVersion {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    private long version;
+
+    public DataVersion() {
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+}
@@ -1,21 +1,34 @@
 package com.expensetracker.model;
 
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SQLRestriction;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import com.fasterxml.jackson.annotation.JsonInclude;
 
+import jakarta.persistence.FetchType;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.JoinColumn;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import java.time.LocalDateTime;
 
+// soft-deleted rows stay invisible to every entity query until the archival job moves them out;
+// MySQL has no partial indexes, so the flag follows user_id in each index instead
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_expense_user_active_date", columnList = "user_id, active, date"),
+        @Index(name = "idx_expense_user_active_category_id_date", columnList = "user_id, active, category_id, date"),
+        @Index(name = "idx_expense_user_active_amount", columnList = "user_id, active, amount"),
+        @Index(name = "idx_expense_active_date", columnList = "active, date")
+})
+@SQLRestriction("active = true")
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class Expense {
     @Id
@@ -25,6 +38,10 @@ public class Expense {
     private String title;
     private double amount;
     private String category;
+
+    @Column(name = "category_id")
+    @JsonIgnore
+    private Long categoryId;
     private String note;
     private String tags;
 
@@ -34,7 +51,7 @@ public class Expense {
     @CreationTimestamp
     private LocalDateTime date;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     @JsonIgnore
     private User user;
@@ -86,6 +103,14 @@ public class Expense {
         this.category = category;
     }
 
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+
     public String getNote() {
         return note;
     }
@@ -0,0 +1,47 @@
+package com.expensetracker.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// one row per scheduled job that must run on a single instance at a time
+@Entity
+@Table(name = "job_lock")
+public class JobLock {
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(name = "locked_until", nullable = false)
+    private LocalDateTime lockedUntil;
+
+    @Column(name = "locked_by", length = 64)
+    private String lockedBy;
+
+    public JobLock() {
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public LocalDateTime getLockedUntil() {
+        return lockedUntil;
+    }
+
+    public void setLockedUntil(LocalDateTime lockedUntil) {
+        this.lockedUntil = lockedUntil;
+    }
+
+    public String getLockedBy() {
+        return lockedBy;
+    }
+
+    public void setLockedBy(String lockedBy) {
+        this.lockedBy = lockedBy;
+    }
+}
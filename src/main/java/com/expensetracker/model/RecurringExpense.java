@@ -1,10 +1,16 @@
 package com.expensetracker.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import java.time.LocalDateTime;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "recurringExpense")
+@Table(indexes = @Index(name = "idx_recurring_next_date", columnList = "nextDate, id"))
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class RecurringExpense {
     @Id
@@ -14,11 +20,20 @@ public class RecurringExpense {
     private String title;
     private double amount;
     private String category;
+
+    @Column(name = "category_id")
+    @JsonIgnore
+    private Long categoryId;
     private String note;
     private String tags;
     private String frequency;
     private LocalDateTime nextDate;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
+    @JsonIgnore
+    private User user;
+
     public RecurringExpense() {
     }
 
@@ -54,6 +69,14 @@ public class RecurringExpense {
         this.category = category;
     }
 
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+
     public String getNote() {
         return note;
     }
@@ -85,4 +108,12 @@ public class RecurringExpense {
     public void setNextDate(LocalDateTime nextDate) {
         this.nextDate = nextDate;
     }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
 }
@@ -1,11 +1,29 @@
 package com.expensetracker.repository;
 
 import com.expensetracker.model.Budget;
+import com.expensetracker.model.BudgetPeriod;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface BudgetRepository extends JpaRepository<Budget, Long> {
-    List<Budget> findByCategory(String category);
+    // budget lists always reach the database: BudgetTracker and conditional GETs trust
+    // them to match the user's data version, which a per-instance query cache cannot
+    List<Budget> findByUserId(Long userId);
+
+    List<Budget> findByUserIdAndCategoryId(Long userId, Long categoryId);
+
+    @Query("select b from Budget b where b.user.id = :userId and b.period = :period "
+            + "and ((:categoryId is null and b.categoryId is null) or b.categoryId = :categoryId)")
+    Optional<Budget> findForUser(@Param("userId") Long userId, @Param("categoryId") Long categoryId,
+            @Param("period") BudgetPeriod period);
+
+    @Modifying
+    @Query("delete from Budget b where b.id = :id and b.user.id = :userId")
+    int deleteByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
 }
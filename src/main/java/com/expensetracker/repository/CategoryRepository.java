@@ -0,0 +1,70 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.Category;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CategoryRepository extends JpaRepository<Category, Long> {
+
+    List<Category> findByUserId(Long userId);
+
+    Optional<Category> findByUserIdAndName(Long userId, String name);
+
+    // a locking read sees a row another transaction committed after this one's snapshot was taken
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("select c from Category c where c.userId = :userId and c.name = :name")
+    Optional<Category> lockByUserIdAndName(@Param("userId") Long userId, @Param("name") String name);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "category"))
+    @Query(value = "INSERT INTO category (user_id, name, display_name) VALUES (:userId, :name, :displayName) "
+            + "ON DUPLICATE KEY UPDATE name = name", nativeQuery = true)
+    void insertIfAbsent(@Param("userId") Long userId, @Param("name") String name,
+            @Param("displayName") String displayName);
+
+    // the backfill statements below only touch rows written before categories had ids
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "category"))
+    @Query(value = "INSERT INTO category (user_id, name, display_name) "
+            + "SELECT t.user_id, LOWER(TRIM(t.category)), MIN(TRIM(t.category)) FROM ("
+            + "SELECT user_id, category FROM expense WHERE category_id IS NULL "
+            + "UNION ALL SELECT user_id, category FROM budget WHERE category_id IS NULL "
+            + "UNION ALL SELECT user_id, category FROM recurring_expense WHERE category_id IS NULL) t "
+            + "WHERE t.user_id IS NOT NULL AND TRIM(t.category) <> '' AND NOT EXISTS ("
+            + "SELECT 1 FROM category c WHERE c.user_id = t.user_id AND c.name = LOWER(TRIM(t.category))) "
+            + "GROUP BY t.user_id, LOWER(TRIM(t.category))", nativeQuery = true)
+    int backfillNames();
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "expense"))
+    @Query(value = "UPDATE expense e SET category_id = (SELECT c.id FROM category c "
+            + "WHERE c.user_id = e.user_id AND c.name = LOWER(TRIM(e.category))) "
+            + "WHERE e.category_id IS NULL AND e.user_id IS NOT NULL AND TRIM(e.category) <> ''", nativeQuery = true)
+    int backfillExpenses();
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "budget"))
+    @Query(value = "UPDATE budget b SET category_id = (SELECT c.id FROM category c "
+            + "WHERE c.user_id = b.user_id AND c.name = LOWER(TRIM(b.category))) "
+            + "WHERE b.category_id IS NULL AND b.user_id IS NOT NULL AND TRIM(b.category) <> ''", nativeQuery = true)
+    int backfillBudgets();
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "recurring_expense"))
+    @Query(value = "UPDATE recurring_expense r SET category_id = (SELECT c.id FROM category c "
+            + "WHERE c.user_id = r.user_id AND c.name = LOWER(TRIM(r.category))) "
+            + "WHERE r.category_id IS NULL AND r.user_id IS NOT NULL AND TRIM(r.category) <> ''", nativeQuery = true)
+    int backfillRecurring();
+}
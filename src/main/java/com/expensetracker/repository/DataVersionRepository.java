@@ -0,0 +1,26 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.DataVersion;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface DataVersionRepository extends JpaRepository<DataVersion, Long> {
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_data_version"))
+    @Query(value = "INSERT INTO user_data_version (user_id, version) VALUES (:userId, 1) "
+            + "ON DUPLICATE KEY UPDATE version = version + 1", nativeQuery = true)
+    void bump(@Param("userId") Long userId);
+
+    @Query("select v.version from DataVersion v where v.userId = :userId")
+    Optional<Long> findVersion(@Param("userId") Long userId);
+}
@@ -0,0 +1,71 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.dto.ExpenseView;
+import com.expensetracker.model.ArchivedExpense;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface ExpenseArchiveRepository extends JpaRepository<ArchivedExpense, Long> {
+
+    // a plain read, so scanning for candidates never blocks user writes; both branches are
+    // ranges of idx_expense_active_date
+    @Query(value = "SELECT id FROM expense WHERE active = FALSE OR (active = TRUE AND date < :cutoff) "
+            + "LIMIT :limit", nativeQuery = true)
+    List<Long> findArchivable(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    // locks only the candidates, by primary key, re-checking them because they were read
+    // unlocked; the locks keep a concurrent update from landing between the copy and the
+    // delete, and rows a user is editing right now are left for the next run
+    @Query(value = "SELECT id, user_id FROM expense WHERE id IN (:ids) AND (active = FALSE OR date < :cutoff) "
+            + "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Object[]> lockArchivable(@Param("ids") Collection<Long> ids, @Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "expense_archive"))
+    @Query(value = "INSERT INTO expense_archive "
+            + "(id, user_id, title, amount, category, category_id, note, tags, active, date, archived_at) "
+            + "SELECT id, user_id, title, amount, category, category_id, note, tags, active, date, :now "
+            + "FROM expense WHERE id IN (:ids)", nativeQuery = true)
+    int copyFromHot(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "expense"))
+    @Query(value = "DELETE FROM expense WHERE id IN (:ids)", nativeQuery = true)
+    int deleteFromHot(@Param("ids") Collection<Long> ids);
+
+    // same order as ExpenseRepository.streamByUserId, so an export can merge the two streams
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select a from ArchivedExpense a where a.userId = :userId and a.active = true "
+            + "and (:from is null or a.date >= :from) and (:to is null or a.date <= :to) order by a.date, a.id")
+    Stream<ArchivedExpense> streamByUserId(@Param("userId") Long userId, @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    // newest first with the same (date, id) seek as the hot table, so both pages merge under one cursor
+    @Query("select new com.expensetracker.dto.ExpenseView(a.id, a.title, a.amount, a.category, a.note, a.tags, "
+            + "a.active, a.date, true) from ArchivedExpense a where a.userId = :userId and a.active = true "
+            + "and (:categoryId is null or a.categoryId = :categoryId) "
+            + "and (:from is null or a.date >= :from) and (:to is null or a.date <= :to) "
+            + "and (:min is null or a.amount >= :min) and (:max is null or a.amount <= :max) "
+            + "and (:afterDate is null or a.date < :afterDate or (a.date = :afterDate and a.id < :afterId)) "
+            + "order by a.date desc, a.id desc")
+    List<ExpenseView> findPage(@Param("userId") Long userId, @Param("categoryId") Long categoryId,
+            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to, @Param("min") Double min,
+            @Param("max") Double max, @Param("afterDate") LocalDateTime afterDate, @Param("afterId") Long afterId,
+            Pageable page);
+}
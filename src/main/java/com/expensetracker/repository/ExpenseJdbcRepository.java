@@ -0,0 +1,70 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.metrics.RequestRows;
+import com.expensetracker.model.Expense;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public class ExpenseJdbcRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO expense "
+            + "(title, amount, category, category_id, note, tags, active, date, user_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String COLUMNS_SQL = "SELECT id, date, amount, category_id FROM expense "
+            + "WHERE user_id = ? AND active = TRUE AND date >= ? ORDER BY id";
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    public interface ColumnHandler {
+        boolean row(long id, long epochDay, double amount, long categoryId);
+    }
+
+    // plain JDBC batches: Hibernate cannot batch inserts for IDENTITY ids, and
+    // with rewriteBatchedStatements the driver sends each chunk as one statement
+    public void insertAll(Long userId, List<Expense> expenses) {
+        jdbc.batchUpdate(INSERT_SQL, expenses, expenses.size(), (ps, e) -> {
+            ps.setString(1, e.getTitle());
+            ps.setDouble(2, e.getAmount());
+            ps.setString(3, e.getCategory());
+            ps.setObject(4, e.getCategoryId(), Types.BIGINT);
+            ps.setString(5, e.getNote());
+            ps.setString(6, e.getTags());
+            ps.setBoolean(7, e.getActive() == null || e.getActive());
+            ps.setTimestamp(8, Timestamp.valueOf(e.getDate()));
+            ps.setLong(9, userId);
+        });
+    }
+
+    // reads only the columns analytics needs for active rows dated on or after since,
+    // without building entities; stops early once the handler returns false
+    public void scanColumns(Long userId, LocalDateTime since, ColumnHandler handler) {
+        jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement(COLUMNS_SQL);
+            ps.setFetchSize(1000);
+            ps.setLong(1, userId);
+            ps.setTimestamp(2, Timestamp.valueOf(since));
+            return ps;
+        }, rs -> {
+            long rows = 0;
+            while (rs.next()) {
+                rows++;
+                if (!handler.row(rs.getLong(1), rs.getTimestamp(2).toLocalDateTime().toLocalDate().toEpochDay(),
+                        rs.getDouble(3), rs.getLong(4))) {
+                    break;
+                }
+            }
+            RequestRows.add(rows);
+            return null;
+        });
+    }
+}
@@ -1,19 +1,91 @@
 package com.expensetracker.repository;
 
+import com.expensetracker.dto.ExpenseView;
 import com.expensetracker.model.Expense;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
-import com.expensetracker.model.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 
 @Repository
-public interface ExpenseRepository extends JpaRepository<Expense, Long> {
+public interface ExpenseRepository extends JpaRepository<Expense, Long>, JpaSpecificationExecutor<Expense>,
+        ExpenseRepositoryCustom {
+
+    // ownership and the GET /expenses filters, shared by the set-based updates below
+    String OWNED_FILTER = "e.user.id = :userId and e.active = true "
+            + "and (:categoryId is null or e.categoryId = :categoryId) "
+            + "and (:from is null or e.date >= :from) and (:to is null or e.date <= :to) "
+            + "and (:min is null or e.amount >= :min) and (:max is null or e.amount <= :max)";
+
     List<Expense> findByCategory(String category);
 
     List<Expense> findByDateBetween(LocalDateTime start, LocalDateTime end);
 
-    List<Expense> findByUser(User user);
+    List<Expense> findByUserId(Long userId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select e from Expense e where e.user.id = :userId "
+            + "and (:from is null or e.date >= :from) and (:to is null or e.date <= :to) order by e.date, e.id")
+    Stream<Expense> streamByUserId(@Param("userId") Long userId, @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    @Query("select e.id, e.title, e.note, e.tags, e.date from Expense e where e.user.id = :userId")
+    List<Object[]> findSearchableFieldsByUserId(@Param("userId") Long userId);
+
+    @Query("select new com.expensetracker.dto.ExpenseView(e.id, e.title, e.amount, e.category, e.note, e.tags, "
+            + "e.active, e.date) from Expense e where e.id in :ids and e.user.id = :userId")
+    List<ExpenseView> findViewsByIds(@Param("ids") Collection<Long> ids, @Param("userId") Long userId);
+
+    // the values rollup and budget deltas are computed from; the row locks keep them current until commit
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select e.id, e.date, e.amount, e.categoryId from Expense e where e.id in :ids and e.user.id = :userId")
+    List<Object[]> lockOwned(@Param("ids") Collection<Long> ids, @Param("userId") Long userId);
+
+    @Modifying
+    @Query("update Expense e set e.active = false where e.id in :ids and e.user.id = :userId and e.active = true")
+    int softDeleteOwned(@Param("ids") Collection<Long> ids, @Param("userId") Long userId);
+
+    @Modifying
+    @Query("update Expense e set e.title = :title, e.amount = :amount, e.category = :category, "
+            + "e.categoryId = :categoryId, e.date = :date, e.note = :note, e.tags = :tags "
+            + "where e.id = :id and e.user.id = :userId and e.active = true")
+    int updateOwned(@Param("id") Long id, @Param("userId") Long userId, @Param("title") String title,
+            @Param("amount") double amount, @Param("category") String category,
+            @Param("categoryId") Long categoryId, @Param("date") LocalDateTime date, @Param("note") String note,
+            @Param("tags") String tags);
+
+    // the rows a bulk update will touch, locked like lockOwned so their rollup deltas stay exact
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select e.id, e.date, e.amount, e.categoryId from Expense e where " + OWNED_FILTER)
+    List<Object[]> lockMatching(@Param("userId") Long userId, @Param("categoryId") Long categoryId,
+            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to, @Param("min") Double min,
+            @Param("max") Double max);
+
+    // by id rather than by filter, so rows inserted after lockMatching are not moved without their deltas
+    @Modifying
+    @Query("update Expense e set e.category = :newCategory, e.categoryId = :newCategoryId where e.id in :ids")
+    int recategorize(@Param("ids") Collection<Long> ids, @Param("newCategory") String newCategory,
+            @Param("newCategoryId") Long newCategoryId);
+
+    @Modifying
+    @Query("update Expense e set e.tags = :tags where " + OWNED_FILTER)
+    int retagOwned(@Param("userId") Long userId, @Param("categoryId") Long categoryId,
+            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to, @Param("min") Double min,
+            @Param("max") Double max, @Param("tags") String tags);
 }
@@ -0,0 +1,13 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.dto.ExpenseView;
+import com.expensetracker.model.Expense;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface ExpenseRepositoryCustom {
+
+    List<ExpenseView> findPage(Specification<Expense> spec, ExpenseSort sort, boolean desc, Object afterKey,
+            Long afterId, int limit);
+}
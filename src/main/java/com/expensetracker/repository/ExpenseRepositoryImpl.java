@@ -0,0 +1,59 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.dto.ExpenseView;
+import com.expensetracker.model.Expense;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public class ExpenseRepositoryImpl implements ExpenseRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public List<ExpenseView> findPage(Specification<Expense> spec, ExpenseSort sort, boolean desc, Object afterKey,
+            Long afterId, int limit) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<ExpenseView> query = cb.createQuery(ExpenseView.class);
+        Root<Expense> root = query.from(Expense.class);
+
+        Expression<Comparable<Object>> key = sortKey(root, cb, sort);
+        Expression<Long> id = root.get("id");
+
+        Predicate where = spec.toPredicate(root, query, cb);
+        if (afterId != null) {
+            @SuppressWarnings("unchecked")
+            Comparable<Object> k = (Comparable<Object>) afterKey;
+            Predicate seek = desc
+                    ? cb.or(cb.lessThan(key, k), cb.and(cb.equal(key, k), cb.lessThan(id, afterId)))
+                    : cb.or(cb.greaterThan(key, k), cb.and(cb.equal(key, k), cb.greaterThan(id, afterId)));
+            where = cb.and(where, seek);
+        }
+
+        query.select(cb.construct(ExpenseView.class, id, root.get("title"), root.get("amount"),
+                        root.get("category"), root.get("note"), root.get("tags"), root.get("active"),
+                        root.get("date")))
+                .where(where)
+                .orderBy(desc ? cb.desc(key) : cb.asc(key), desc ? cb.desc(id) : cb.asc(id));
+
+        return em.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Expression<Comparable<Object>> sortKey(Root<Expense> root, CriteriaBuilder cb, ExpenseSort sort) {
+        return switch (sort) {
+            case AMOUNT -> root.get("amount");
+            case TITLE -> (Expression<Comparable<Object>>) (Expression<?>) cb.coalesce(root.<String>get("title"), "");
+            case CATEGORY -> (Expression<Comparable<Object>>) (Expression<?>) cb.coalesce(root.<String>get("category"), "");
+            default -> root.get("date");
+        };
+    }
+}
@@ -0,0 +1,96 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.ExpenseRollup;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ExpenseRollupRepository extends JpaRepository<ExpenseRollup, Long> {
+
+    // declaring the touched table keeps Hibernate from clearing every second-level cache region
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "expense_category_rollup"))
+    @Query(value = "INSERT INTO expense_category_rollup (user_id, spend_day, category_id, total, expense_count) "
+            + "VALUES (:userId, :day, :categoryId, :amount, :count) "
+            + "ON DUPLICATE KEY UPDATE total = total + :amount, expense_count = expense_count + :count",
+            nativeQuery = true)
+    void upsert(@Param("userId") Long userId, @Param("day") LocalDate day, @Param("categoryId") long categoryId,
+            @Param("amount") double amount, @Param("count") long count);
+
+    @Modifying
+    @Query("delete from ExpenseRollup r where r.userId = :userId")
+    void deleteByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "expense_category_rollup"))
+    @Query(value = "INSERT INTO expense_category_rollup (user_id, spend_day, category_id, total, expense_count) "
+            + "SELECT e.user_id, CAST(e.date AS DATE), COALESCE(e.category_id, 0), SUM(e.amount), COUNT(*) "
+            + "FROM (SELECT user_id, date, category_id, amount FROM expense WHERE user_id = :userId AND active = TRUE "
+            + "UNION ALL SELECT user_id, date, category_id, amount FROM expense_archive "
+            + "WHERE user_id = :userId AND active = TRUE) e "
+            + "GROUP BY e.user_id, CAST(e.date AS DATE), COALESCE(e.category_id, 0)", nativeQuery = true)
+    int rebuildForUser(@Param("userId") Long userId);
+
+    @Query(value = "SELECT user_id FROM expense WHERE user_id IS NOT NULL "
+            + "UNION SELECT user_id FROM expense_archive WHERE user_id IS NOT NULL", nativeQuery = true)
+    List<Long> findUserIdsWithExpenses();
+
+    @Query("select coalesce(sum(r.total), 0) from ExpenseRollup r where r.userId = :userId "
+            + "and r.day between :from and :to and (:categoryId is null or r.categoryId = :categoryId)")
+    double sumTotal(@Param("userId") Long userId, @Param("from") LocalDate from, @Param("to") LocalDate to,
+            @Param("categoryId") Long categoryId);
+
+    @Query("select r.categoryId, sum(r.total) from ExpenseRollup r where r.userId = :userId "
+            + "and r.day between :from and :to group by r.categoryId having sum(r.expenseCount) > 0")
+    List<Object[]> sumByCategory(@Param("userId") Long userId, @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    @Query("select r.day, sum(r.total) from ExpenseRollup r where r.userId = :userId "
+            + "and r.day between :from and :to group by r.day having sum(r.expenseCount) > 0 order by r.day")
+    List<Object[]> sumByDay(@Param("userId") Long userId, @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    @Query("select r.day, r.categoryId, r.total from ExpenseRollup r where r.userId = :userId "
+            + "and r.day between :from and :to and r.expenseCount > 0 order by r.day")
+    List<Object[]> findDaysAndCategories(@Param("userId") Long userId, @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    // monthly totals per category with their month-over-month change and trailing averages, in one
+    // statement over the rollup's (user_id, spend_day) prefix. Categories spent on since :since get a zero
+    // row for every month, so the windows count calendar months; the first :lookback months only feed
+    // the windows. The month series is generated up to :span, so it follows whatever range the caller
+    // asks for. H2 caches a parameterized recursive CTE across executions, so this runs against MySQL only.
+    @Query(value = "WITH RECURSIVE months (idx) AS (SELECT 0 UNION ALL SELECT idx + 1 FROM months "
+            + "WHERE idx < :span - 1) "
+            + "SELECT category_id, idx - :lookback, total, change_amount, avg3, avg6 FROM ("
+            + "SELECT category_id, idx, total, "
+            + "total - LAG(total) OVER (PARTITION BY category_id ORDER BY idx) AS change_amount, "
+            + "AVG(total) OVER (PARTITION BY category_id ORDER BY idx ROWS BETWEEN 2 PRECEDING AND CURRENT ROW) "
+            + "AS avg3, "
+            + "AVG(total) OVER (PARTITION BY category_id ORDER BY idx ROWS BETWEEN 5 PRECEDING AND CURRENT ROW) "
+            + "AS avg6, in_range FROM ("
+            + "SELECT category_id, idx, SUM(total) AS total, MAX(in_range) AS in_range FROM ("
+            + "SELECT category_id, idx, SUM(total) AS total, 0 AS in_range FROM ("
+            + "SELECT category_id, EXTRACT(YEAR FROM spend_day) * 12 + EXTRACT(MONTH FROM spend_day) - :firstMonth "
+            + "AS idx, total FROM expense_category_rollup "
+            + "WHERE user_id = :userId AND spend_day BETWEEN :from AND :to AND expense_count > 0) r "
+            + "GROUP BY category_id, idx "
+            + "UNION ALL SELECT c.category_id, m.idx, CAST(0 AS DOUBLE), 1 FROM ("
+            + "SELECT DISTINCT category_id FROM expense_category_rollup "
+            + "WHERE user_id = :userId AND spend_day BETWEEN :since AND :to AND expense_count > 0) c "
+            + "CROSS JOIN months m) u "
+            + "GROUP BY category_id, idx) grid) trend "
+            + "WHERE idx >= :lookback AND in_range = 1 ORDER BY category_id, idx", nativeQuery = true)
+    List<Object[]> monthlyTrends(@Param("userId") Long userId, @Param("from") LocalDate from,
+            @Param("since") LocalDate since, @Param("to") LocalDate to, @Param("firstMonth") int firstMonth,
+            @Param("span") int span, @Param("lookback") int lookback);
+}
@@ -0,0 +1,39 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.dto.ExpenseView;
+
+public enum ExpenseSort {
+    DATE,
+    AMOUNT,
+    TITLE,
+    CATEGORY;
+
+    public static ExpenseSort from(String sortBy) {
+        if (sortBy == null) {
+            return DATE;
+        }
+        return switch (sortBy.toLowerCase()) {
+            case "amount" -> AMOUNT;
+            case "title" -> TITLE;
+            case "category" -> CATEGORY;
+            default -> DATE;
+        };
+    }
+
+    public Object keyOf(ExpenseView e) {
+        return switch (this) {
+            case DATE -> e.date();
+            case AMOUNT -> e.amount();
+            case TITLE -> e.title() != null ? e.title() : "";
+            case CATEGORY -> e.category() != null ? e.category() : "";
+        };
+    }
+
+    public Object parseKey(String key) {
+        return switch (this) {
+            case DATE -> java.time.LocalDateTime.parse(key);
+            case AMOUNT -> Double.valueOf(key);
+            default -> key;
+        };
+    }
+}
@@ -0,0 +1,62 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.Expense;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+public final class ExpenseSpecifications {
+
+    private ExpenseSpecifications() {
+    }
+
+    public static Specification<Expense> belongsTo(Long userId) {
+        return (root, query, cb) -> cb.equal(root.get("user").get("id"), userId);
+    }
+
+    public static Specification<Expense> inCategory(Long categoryId) {
+        if (categoryId == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("categoryId"), categoryId);
+    }
+
+    public static Specification<Expense> dateFrom(LocalDateTime start) {
+        if (start == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("date"), start);
+    }
+
+    public static Specification<Expense> dateTo(LocalDateTime end) {
+        if (end == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("date"), end);
+    }
+
+    public static Specification<Expense> minAmount(Double min) {
+        if (min == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("amount"), min);
+    }
+
+    public static Specification<Expense> maxAmount(Double max) {
+        if (max == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("amount"), max);
+    }
+
+    public static Specification<Expense> filter(Long userId, Long categoryId, LocalDateTime start,
+            LocalDateTime end, Double min, Double max) {
+        // and() skips the null specs of unset filters
+        return belongsTo(userId)
+                .and(inCategory(categoryId))
+                .and(dateFrom(start))
+                .and(dateTo(end))
+                .and(minAmount(min))
+                .and(maxAmount(max));
+    }
+}
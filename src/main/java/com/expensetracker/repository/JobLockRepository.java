@@ -0,0 +1,34 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.JobLock;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface JobLockRepository extends JpaRepository<JobLock, String> {
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "job_lock"))
+    @Query(value = "INSERT INTO job_lock (name, locked_until) VALUES (:name, :epoch) "
+            + "ON DUPLICATE KEY UPDATE name = name", nativeQuery = true)
+    void insertIfAbsent(@Param("name") String name, @Param("epoch") LocalDateTime epoch);
+
+    // a single conditional update, so exactly one instance wins an expired lock
+    @Modifying
+    @Query("update JobLock j set j.lockedUntil = :until, j.lockedBy = :owner where j.name = :name "
+            + "and j.lockedUntil <= :now")
+    int acquire(@Param("name") String name, @Param("owner") String owner, @Param("now") LocalDateTime now,
+            @Param("until") LocalDateTime until);
+
+    @Modifying
+    @Query("update JobLock j set j.lockedUntil = :now where j.name = :name and j.lockedBy = :owner")
+    int release(@Param("name") String name, @Param("owner") String owner, @Param("now") LocalDateTime now);
+}
@@ -1,9 +1,40 @@
 package com.expensetracker.repository;
 
 import com.expensetracker.model.RecurringExpense;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface RecurringExpenseRepository extends JpaRepository<RecurringExpense, Long> {
+
+    // not query-cached: a rule written on another instance must show up with the data version it bumped
+    List<RecurringExpense> findByUserId(Long userId);
+
+    @Modifying
+    @Query("delete from RecurringExpense r where r.id = :id and r.user.id = :userId")
+    int deleteByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    // (id, nextDate) rows in (next_date, id) order, so each page is a range scan of idx_recurring_next_date
+    @Query("select r.id, r.nextDate from RecurringExpense r where r.nextDate <= :now and (:afterDate is null "
+            + "or r.nextDate > :afterDate or (r.nextDate = :afterDate and r.id > :afterId)) order by r.nextDate, r.id")
+    List<Object[]> findDue(@Param("now") LocalDateTime now, @Param("afterDate") LocalDateTime afterDate,
+            @Param("afterId") Long afterId, Pageable page);
+
+    // SKIP LOCKED lets several instances run the job without generating the same occurrences twice
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select r from RecurringExpense r where r.id in :ids and r.nextDate <= :now")
+    List<RecurringExpense> lockDue(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,36 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.RefreshToken;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    // two refreshes racing on the same token serialize here; the loser sees it rotated
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select t from RefreshToken t where t.tokenHash = :hash")
+    Optional<RefreshToken> lockByHash(@Param("hash") String hash);
+
+    @Modifying
+    @Query("delete from RefreshToken t where t.familyId = :familyId")
+    int deleteFamily(@Param("familyId") String familyId);
+
+    // two steps, since MySQL cannot delete from a table its own subquery reads
+    @Query("select t.familyId from RefreshToken t group by t.familyId having max(t.expiresAt) < :now")
+    List<String> findExpiredFamilies(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("delete from RefreshToken t where t.familyId in :familyIds")
+    int deleteFamilies(@Param("familyIds") Collection<String> familyIds);
+}
@@ -4,6 +4,8 @@ import com.expensetracker.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import java.util.Optional;
 
+// lookups by name always reach the database: a cached empty result would keep a user who
+// just registered on another instance from logging in here until it expired
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
-}
\ No newline at end of file
+}
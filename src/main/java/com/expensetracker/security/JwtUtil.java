@@ -5,45 +5,123 @@ import io.jsonwebtoken.security.Keys;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
+import com.expensetracker.model.User;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import java.util.Date;
 
 @Component
 public class JwtUtil {
 
+    private static final int MAX_CACHED_TOKENS = 10_000;
+
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ROLE_CLAIM = "role";
+
+    // clients renew through /auth/refresh, so this can stay short; the initializer covers plain construction
+    @Value("${auth.access-token-ttl-seconds:3600}")
+    private long accessTokenTtlSeconds = 3600;
+
     private String SECRET = "myVeryStrongSecretKey0123456789abcdef";
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+    private final Key signingKey = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+
+    private final JwtParser parser = Jwts.parserBuilder()
+            .setSigningKey(signingKey)
+            .build();
+
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+
+    private record VerifiedToken(Claims claims, long expiresAt) {
     }
 
-    public String generateToken(String username) {
+    public String generateToken(User user) {
         return Jwts.builder()
-                .setSubject(username)
+                .setSubject(user.getUsername())
+                .claim(USER_ID_CLAIM, user.getId())
+                .claim(ROLE_CLAIM, user.getRole())
                 .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .setExpiration(new Date(System.currentTimeMillis() + accessTokenTtlSeconds * 1000))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    public long getAccessTokenTtlSeconds() {
+        return accessTokenTtlSeconds;
+    }
+
     public String extractUsername(String token) {
-        return getClaims(token).getSubject();
+        return verify(token).getSubject();
     }
 
     public boolean validateToken(String token, String username) {
-        return extractUsername(token).equals(username) && !isTokenExpired(token);
+        try {
+            return verify(token).getSubject().equals(username);
+        } catch (JwtException e) {
+            return false;
+        }
     }
 
-    private Claims getClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * Verifies the signature and expiry of a token once and returns its claims.
+     * Tokens that already passed verification are served from a bounded cache
+     * keyed by the token's SHA-256 hash until they expire.
+     */
+    public Claims verify(String token) {
+        String key = TokenHash.sha256(token);
+        long now = System.currentTimeMillis();
+
+        VerifiedToken cached = verifiedTokens.get(key);
+        if (cached != null) {
+            if (cached.expiresAt() > now) {
+                cacheHits.increment();
+                return cached.claims();
+            }
+            verifiedTokens.remove(key);
+            throw new ExpiredJwtException(null, cached.claims(), "JWT expired");
+        }
+
+        cacheMisses.increment();
+        Claims claims = parser.parseClaimsJws(token).getBody();
+
+        if (claims.getExpiration() != null) {
+            if (verifiedTokens.size() >= MAX_CACHED_TOKENS) {
+                evict(now);
+            }
+            verifiedTokens.put(key, new VerifiedToken(claims, claims.getExpiration().getTime()));
+        }
+        return claims;
     }
 
-    private boolean isTokenExpired(String token) {
-        return getClaims(token).getExpiration().before(new Date());
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    public int getCacheSize() {
+        return verifiedTokens.size();
+    }
+
+    private void evict(long now) {
+        verifiedTokens.values().removeIf(t -> t.expiresAt() <= now);
+
+        // still full of live tokens: drop an arbitrary tenth to make room
+        Iterator<String> it = verifiedTokens.keySet().iterator();
+        int toDrop = verifiedTokens.size() - MAX_CACHED_TOKENS + MAX_CACHED_TOKENS / 10;
+        while (toDrop-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
     }
-}
\ No newline at end of file
+}
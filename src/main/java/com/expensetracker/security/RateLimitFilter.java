@@ -0,0 +1,227 @@
+package com.expensetracker.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user admission control, run right after {@link JwtFilter}. Each request
+ * falls into a route group with its own rate and burst, and each (group, user)
+ * pair gets a GCRA bucket: a single timestamp advanced by CAS, so admitting a
+ * request never takes a lock. Requests without a user, such as login, are
+ * keyed by client address, which server.forward-headers-strategy resolves
+ * behind a proxy. Token refreshes have their own group, so a busy login
+ * bucket on a shared address never logs sessions out. Rejected requests get
+ * 429 with Retry-After.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    enum RouteGroup {
+        READS, SUMMARIES, WRITES, AUTH, REFRESH
+    }
+
+    private record BucketKey(RouteGroup group, Object subject) {
+    }
+
+    // the timestamp is when the bucket would next be full; a request is admitted
+    // while adding one more interval keeps it within burst intervals of now
+    private static final class Bucket {
+        private final long interval;
+        private final long tolerance;
+        private final AtomicLong theoreticalArrival;
+
+        Bucket(long interval, int burst, long now) {
+            this.interval = interval;
+            this.tolerance = interval * burst;
+            this.theoreticalArrival = new AtomicLong(now);
+        }
+
+        // 0 when admitted, otherwise the nanoseconds until this request would have been
+        long acquire(long now) {
+            while (true) {
+                long current = theoreticalArrival.get();
+                long next = Math.max(current, now) + interval;
+                long excess = next - now - tolerance;
+                if (excess > 0) {
+                    return excess;
+                }
+                if (theoreticalArrival.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        // a full bucket carries no state, so dropping it changes nothing
+        boolean idle(long now) {
+            return theoreticalArrival.get() <= now;
+        }
+    }
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Value("${ratelimit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ratelimit.max-buckets:100000}")
+    private int maxBuckets;
+
+    @Value("${ratelimit.reads.per-second:20}")
+    private double readsPerSecond;
+
+    @Value("${ratelimit.reads.burst:40}")
+    private int readsBurst;
+
+    @Value("${ratelimit.summaries.per-second:2}")
+    private double summariesPerSecond;
+
+    @Value("${ratelimit.summaries.burst:10}")
+    private int summariesBurst;
+
+    @Value("${ratelimit.writes.per-second:10}")
+    private double writesPerSecond;
+
+    @Value("${ratelimit.writes.burst:20}")
+    private int writesBurst;
+
+    @Value("${ratelimit.auth.per-second:1}")
+    private double authPerSecond;
+
+    @Value("${ratelimit.auth.burst:10}")
+    private int authBurst;
+
+    @Value("${ratelimit.refresh.per-second:10}")
+    private double refreshPerSecond;
+
+    @Value("${ratelimit.refresh.burst:50}")
+    private int refreshBurst;
+
+    private final Map<BucketKey, Bucket> buckets = new ConcurrentHashMap<>();
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!enabled) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        // decoded as the handler mapping sees it, so an encoded path cannot slip into a looser group
+        String path = UrlPathHelper.defaultInstance.getLookupPathForRequest(request);
+        RouteGroup group = classify(request.getMethod(), path);
+        BucketKey key = new BucketKey(group, subject(request));
+        long now = System.nanoTime();
+
+        long wait = bucket(key, now).acquire(now);
+        if (wait == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        registry.counter("http.server.requests.throttled", "group", group.name().toLowerCase(Locale.ROOT))
+                .increment();
+        long retryAfter = Math.max(1, (wait + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"Too many requests\",\"retryAfter\":" + retryAfter + "}");
+    }
+
+    // summaries, trends, search, dashboard and export each read a user's whole history or a long range of it
+    static RouteGroup classify(String method, String path) {
+        // every session behind one address refreshes through here, so it gets a larger allowance than login
+        if (path.equals("/auth/refresh")) {
+            return RouteGroup.REFRESH;
+        }
+        if (path.startsWith("/auth")) {
+            return RouteGroup.AUTH;
+        }
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            return RouteGroup.WRITES;
+        }
+        if (path.startsWith("/expenses/summary") || path.equals("/expenses/search")
+                || path.equals("/expenses/dashboard") || path.equals("/expenses/export")
+                || path.equals("/expenses/trends")) {
+            return RouteGroup.SUMMARIES;
+        }
+        return RouteGroup.READS;
+    }
+
+    @Scheduled(fixedDelayString = "${ratelimit.sweep-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(b -> b.idle(now));
+    }
+
+    public int getBucketCount() {
+        return buckets.size();
+    }
+
+    private Object subject(HttpServletRequest request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.id();
+        }
+        return request.getRemoteAddr();
+    }
+
+    private Bucket bucket(BucketKey key, long now) {
+        Bucket bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxBuckets) {
+            evict(now);
+        }
+        return buckets.computeIfAbsent(key, k -> newBucket(k.group(), now));
+    }
+
+    private Bucket newBucket(RouteGroup group, long now) {
+        return switch (group) {
+            case READS -> new Bucket(interval(readsPerSecond), readsBurst, now);
+            case SUMMARIES -> new Bucket(interval(summariesPerSecond), summariesBurst, now);
+            case WRITES -> new Bucket(interval(writesPerSecond), writesBurst, now);
+            case AUTH -> new Bucket(interval(authPerSecond), authBurst, now);
+            case REFRESH -> new Bucket(interval(refreshPerSecond), refreshBurst, now);
+        };
+    }
+
+    private static long interval(double perSecond) {
+        return (long) (NANOS_PER_SECOND / perSecond);
+    }
+
+    private void evict(long now) {
+        buckets.values().removeIf(b -> b.idle(now));
+
+        // still full of active buckets: drop an arbitrary tenth, whose owners start over with a full burst
+        Iterator<BucketKey> it = buckets.keySet().iterator();
+        int toDrop = buckets.size() - maxBuckets + maxBuckets / 10;
+        while (toDrop-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package com.expensetracker.service;
 
+import com.expensetracker.dto.BudgetStatus;
 import com.expensetracker.model.Budget;
+import com.expensetracker.model.BudgetPeriod;
 import com.expensetracker.repository.BudgetRepository;
+import com.expensetracker.repository.UserRepository;
+import com.expensetracker.security.AuthenticatedUser;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 
 @Service
@@ -11,19 +16,65 @@ public class BudgetService {
     @Autowired
     private BudgetRepository repo;
 
+    @Autowired
+    private UserRepository userRepo;
+
+    @Autowired
+    private BudgetTracker tracker;
+
+    @Autowired
+    private CategoryService categories;
+
+    @Autowired
+    private DataVersionService versions;
+
+    @Transactional
     public Budget setBudget(Budget budget) {
-        return repo.save(budget);
+        Long userId = AuthenticatedUser.current().id();
+        BudgetPeriod period = budget.getPeriod() != null ? budget.getPeriod() : BudgetPeriod.MONTHLY;
+
+        if (budget.getLimitAmount() <= 0) {
+            throw new IllegalArgumentException("Budget limit must be positive");
+        }
+
+        Long categoryId = categories.resolve(userId, budget.getCategory());
+        Budget target = repo.findForUser(userId, categoryId, period).orElseGet(Budget::new);
+        target.setCategory(budget.getCategory());
+        target.setCategoryId(categoryId);
+        target.setPeriod(period);
+        target.setLimitAmount(budget.getLimitAmount());
+        target.setUser(userRepo.getReferenceById(userId));
+
+        Budget saved = repo.save(target);
+        versions.bump(userId);
+        tracker.invalidate(userId);
+        return saved;
     }
 
     public List<Budget> getBudgets() {
-        return repo.findAll();
+        return repo.findByUserId(AuthenticatedUser.current().id());
     }
 
     public Budget getBudgetByCategory(String category) {
-        return repo.findByCategory(category).stream().findFirst().orElse(null);
+        Long userId = AuthenticatedUser.current().id();
+        Long categoryId = categories.idOf(userId, category);
+        if (categoryId == null) {
+            return null;
+        }
+        return repo.findByUserIdAndCategoryId(userId, categoryId).stream().findFirst().orElse(null);
+    }
+
+    public List<BudgetStatus> getBudgetStatus() {
+        return tracker.getStatus(AuthenticatedUser.current().id());
     }
 
+    @Transactional
     public void deleteBudget(Long id) {
-        repo.deleteById(id);
+        Long userId = AuthenticatedUser.current().id();
+        if (repo.deleteByIdAndUserId(id, userId) == 0) {
+            throw new RuntimeException("Budget not found");
+        }
+        versions.bump(userId);
+        tracker.invalidate(userId);
     }
 }
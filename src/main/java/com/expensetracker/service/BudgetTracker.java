@@ -0,0 +1,413 @@
+package com.expensetracker.service;
+
+import com.expensetracker.dto.BudgetStatus;
+import com.expensetracker.event.BudgetThresholdEvent;
+import com.expensetracker.model.Budget;
+import com.expensetracker.model.BudgetPeriod;
+import com.expensetracker.model.Expense;
+import com.expensetracker.repository.BudgetRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-user spend counters for the current budget periods. Counters are loaded on the
+ * read path together with the data version they reflect; committed writes on this
+ * instance move them forward in memory, and any gap in versions (a write elsewhere,
+ * a budget change, a period rollover) makes the next read load them again. A write for
+ * a user without current counters reads the period totals inside its own transaction
+ * before commit, so thresholds it crosses are still reported.
+ */
+@Service
+public class BudgetTracker {
+
+    private static final int STRIPES = 64;
+    private static final long STALE = -1;
+
+    @Autowired
+    private BudgetRepository budgetRepo;
+
+    @Autowired
+    private ExpenseRollupService rollupService;
+
+    @Autowired
+    private DataVersionService versions;
+
+    @Autowired
+    private PlatformTransactionManager txManager;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    @Value("${budget.warning-ratio:0.8}")
+    private double warningRatio;
+
+    @Value("${budget.tracker.max-users:10000}")
+    private int maxUsers;
+
+    private final Map<Long, UserBudgets> users = new ConcurrentHashMap<>();
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+    public BudgetTracker() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    // a null category stands for the budget covering all spending in the period
+    private record BudgetKey(Long categoryId, BudgetPeriod period) {
+    }
+
+    private record SpendKey(BudgetKey budget, LocalDate start) {
+    }
+
+    private static class Tracked {
+        final Budget budget;
+        final LongAdder spentCents = new LongAdder();
+        LocalDate start;
+
+        Tracked(Budget budget) {
+            this.budget = budget;
+        }
+    }
+
+    // counters as of a data version, or STALE once a committed write may be missing
+    private static class UserBudgets {
+        final Map<BudgetKey, Tracked> tracked;
+        long version;
+
+        UserBudgets(Map<BudgetKey, Tracked> tracked, long version) {
+            this.tracked = tracked;
+            this.version = version;
+        }
+    }
+
+    public void add(Long userId, Expense e) {
+        record(userId, List.of(e), 1);
+    }
+
+    public void remove(Long userId, Expense e) {
+        record(userId, List.of(e), -1);
+    }
+
+    public void addAll(Long userId, List<Expense> expenses) {
+        record(userId, expenses, 1);
+    }
+
+    public void removeAll(Long userId, List<Expense> expenses) {
+        record(userId, expenses, -1);
+    }
+
+    public void invalidate(Long userId) {
+        AfterCommit.run(() -> {
+            ReentrantLock lock = stripe(userId);
+            lock.lock();
+            try {
+                users.remove(userId);
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    public List<BudgetStatus> getStatus(Long userId) {
+        LocalDate today = LocalDate.now();
+        long version = versions.current(userId);
+
+        List<BudgetStatus> statuses = statusIfCurrent(userId, version, today);
+        if (statuses == null) {
+            // loaded without holding the stripe, so commit callbacks never wait on a query
+            statuses = install(userId, load(userId, today));
+        }
+
+        statuses.sort(Comparator.comparing(BudgetStatus::period)
+                .thenComparing(BudgetStatus::category, Comparator.nullsFirst(Comparator.naturalOrder())));
+        return statuses;
+    }
+
+    private List<BudgetStatus> statusIfCurrent(Long userId, long version, LocalDate today) {
+        ReentrantLock lock = stripe(userId);
+        lock.lock();
+        try {
+            UserBudgets budgets = users.get(userId);
+            if (budgets == null || budgets.version != version) {
+                return null;
+            }
+            List<BudgetStatus> statuses = new ArrayList<>();
+            for (Tracked t : budgets.tracked.values()) {
+                if (!t.start.equals(t.budget.getPeriod().startOf(today))) {
+                    return null;
+                }
+                statuses.add(toStatus(t));
+            }
+            return statuses;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private List<BudgetStatus> install(Long userId, UserBudgets loaded) {
+        ReentrantLock lock = stripe(userId);
+        lock.lock();
+        try {
+            UserBudgets existing = users.get(userId);
+            UserBudgets current = loaded;
+            if (existing != null && existing.version >= loaded.version) {
+                current = existing;
+            } else {
+                if (existing != null) {
+                    reportCrossings(userId, existing, loaded);
+                } else if (users.size() >= maxUsers) {
+                    evict();
+                }
+                users.put(userId, loaded);
+            }
+
+            List<BudgetStatus> statuses = new ArrayList<>();
+            for (Tracked t : current.tracked.values()) {
+                statuses.add(toStatus(t));
+            }
+            return statuses;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // thresholds crossed by writes this instance did not apply in memory, found by comparing the reload
+    private void reportCrossings(Long userId, UserBudgets before, UserBudgets after) {
+        after.tracked.forEach((key, t) -> {
+            Tracked old = before.tracked.get(key);
+            if (old != null && old.start.equals(t.start)) {
+                checkThresholds(userId, t, t.spentCents.sum() - old.spentCents.sum());
+            }
+        });
+    }
+
+    private void evict() {
+        // drop an arbitrary tenth; their next read loads them again
+        Iterator<Long> it = users.keySet().iterator();
+        int toDrop = users.size() - maxUsers + maxUsers / 10;
+        while (toDrop-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private void record(Long userId, List<Expense> expenses, int sign) {
+        LocalDate today = LocalDate.now();
+        Map<SpendKey, Long> deltas = new HashMap<>();
+
+        for (Expense e : expenses) {
+            if (e.getDate() == null) {
+                continue;
+            }
+            LocalDate day = e.getDate().toLocalDate();
+            Long categoryId = e.getCategoryId();
+            long cents = sign * toCents(e.getAmount());
+
+            // only the current period is tracked; older ones are never checked again
+            for (BudgetPeriod period : BudgetPeriod.values()) {
+                LocalDate start = period.startOf(day);
+                if (!start.equals(period.startOf(today))) {
+                    continue;
+                }
+                deltas.merge(new SpendKey(new BudgetKey(null, period), start), cents, Long::sum);
+                if (categoryId != null) {
+                    deltas.merge(new SpendKey(new BudgetKey(categoryId, period), start), cents, Long::sum);
+                }
+            }
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(userId);
+            return;
+        }
+
+        // registered even without deltas, so the version this write commits as is accounted for
+        PendingSpend pending = (PendingSpend) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingSpend();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        Map<SpendKey, Long> userDeltas = pending.forUser(userId, versions.committing(userId));
+        deltas.forEach((key, cents) -> userDeltas.merge(key, cents, Long::sum));
+    }
+
+    private boolean isCurrent(Long userId, long version) {
+        ReentrantLock lock = stripe(userId);
+        lock.lock();
+        try {
+            UserBudgets budgets = users.get(userId);
+            return budgets != null && budgets.version == version - 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // must be called with the user's stripe held; touches memory only. Returns whether the
+    // deltas went into current counters, which checked their thresholds on the way.
+    private boolean apply(Long userId, long version, Map<SpendKey, Long> deltas) {
+        UserBudgets budgets = users.get(userId);
+        // not loaded: the next read loads committed state, which includes this write
+        if (budgets == null || budgets.version >= version) {
+            return false;
+        }
+        if (budgets.version != version - 1) {
+            budgets.version = STALE;
+            return false;
+        }
+
+        for (Map.Entry<SpendKey, Long> delta : deltas.entrySet()) {
+            Tracked t = budgets.tracked.get(delta.getKey().budget());
+            if (t == null || delta.getValue() == 0 || delta.getKey().start().isBefore(t.start)) {
+                continue;
+            }
+            // a new period started since the counters were loaded
+            if (delta.getKey().start().isAfter(t.start)) {
+                budgets.version = STALE;
+                return false;
+            }
+            t.spentCents.add(delta.getValue());
+            checkThresholds(userId, t, delta.getValue());
+        }
+        budgets.version = version;
+        return true;
+    }
+
+    // the seeded totals already include the write, so each delta is checked as the last step up to them
+    private void checkSeeded(Long userId, Map<BudgetKey, Tracked> seeded, Map<SpendKey, Long> deltas) {
+        deltas.forEach((key, cents) -> {
+            Tracked t = seeded.get(key.budget());
+            if (t != null && cents != 0 && key.start().equals(t.start)) {
+                checkThresholds(userId, t, cents);
+            }
+        });
+    }
+
+    private void checkThresholds(Long userId, Tracked t, long delta) {
+        long after = t.spentCents.sum();
+        long before = after - delta;
+        long limit = toCents(t.budget.getLimitAmount());
+        long warning = (long) Math.ceil(limit * warningRatio);
+
+        BudgetThresholdEvent.Level level = null;
+        if (before < limit && after >= limit) {
+            level = BudgetThresholdEvent.Level.EXCEEDED;
+        } else if (before < warning && after >= warning) {
+            level = BudgetThresholdEvent.Level.WARNING;
+        }
+        if (level != null) {
+            events.publishEvent(new BudgetThresholdEvent(userId, t.budget.getId(), t.budget.getCategory(),
+                    t.budget.getPeriod(), t.start, level, after / 100.0, t.budget.getLimitAmount()));
+        }
+    }
+
+    // the version and the totals come from one repeatable-read snapshot, so the counters
+    // hold exactly the writes up to that version
+    private UserBudgets load(Long userId, LocalDate today) {
+        TransactionTemplate tx = new TransactionTemplate(txManager);
+        tx.setReadOnly(true);
+        tx.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+
+        return tx.execute(status -> {
+            long version = versions.current(userId);
+            return new UserBudgets(totals(userId, today), version);
+        });
+    }
+
+    private Map<BudgetKey, Tracked> totals(Long userId, LocalDate today) {
+        Map<BudgetKey, Tracked> tracked = new HashMap<>();
+        for (Budget b : budgetRepo.findByUserId(userId)) {
+            BudgetPeriod period = b.getPeriod();
+            Tracked t = new Tracked(b);
+            t.start = period.startOf(today);
+            t.spentCents.add(toCents(rollupService.getTotal(userId, t.start, period.endOf(today),
+                    b.getCategoryId())));
+            tracked.put(new BudgetKey(b.getCategoryId(), period), t);
+        }
+        return tracked;
+    }
+
+    private BudgetStatus toStatus(Tracked t) {
+        double limit = t.budget.getLimitAmount();
+        long spentCents = t.spentCents.sum();
+        long limitCents = toCents(limit);
+
+        String status = "OK";
+        if (spentCents >= limitCents) {
+            status = "EXCEEDED";
+        } else if (spentCents >= Math.ceil(limitCents * warningRatio)) {
+            status = "WARNING";
+        }
+        return new BudgetStatus(t.budget.getId(), t.budget.getCategory(), t.budget.getPeriod(), t.start,
+                t.budget.getPeriod().endOf(t.start), limit, spentCents / 100.0, (limitCents - spentCents) / 100.0,
+                status);
+    }
+
+    private ReentrantLock stripe(Long userId) {
+        return stripes[Math.floorMod(userId.hashCode(), STRIPES)];
+    }
+
+    private static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    // seeded holds the period totals read before commit when the user had no current counters
+    private record UserSpend(long version, Map<SpendKey, Long> deltas, Map<BudgetKey, Tracked> seeded) {
+    }
+
+    private class PendingSpend implements TransactionSynchronization {
+        final Map<Long, UserSpend> byUser = new HashMap<>();
+
+        Map<SpendKey, Long> forUser(Long userId, long version) {
+            return byUser.computeIfAbsent(userId, u -> new UserSpend(version, new HashMap<>(), new HashMap<>()))
+                    .deltas();
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            LocalDate today = LocalDate.now();
+            byUser.forEach((userId, spend) -> {
+                boolean changed = spend.deltas().values().stream().anyMatch(cents -> cents != 0);
+                if (changed && !isCurrent(userId, spend.version())) {
+                    spend.seeded().putAll(totals(userId, today));
+                }
+            });
+        }
+
+        @Override
+        public void afterCommit() {
+            byUser.forEach((userId, spend) -> {
+                ReentrantLock lock = stripe(userId);
+                boolean applied;
+                lock.lock();
+                try {
+                    applied = apply(userId, spend.version(), spend.deltas());
+                } finally {
+                    lock.unlock();
+                }
+                if (!applied) {
+                    checkSeeded(userId, spend.seeded(), spend.deltas());
+                }
+            });
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(BudgetTracker.this);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.expensetracker.service;
+
+import com.expensetracker.repository.CategoryRepository;
+import com.expensetracker.repository.ExpenseRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+// assigns category ids to rows written before the category table existed and
+// rebuilds the rollups, which are now keyed by category id. Every instance fires it
+// on startup; the job lock lets one run it, and the statements only touch rows that
+// still lack an id, so a later run finds nothing to do.
+@Component
+public class CategoryBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(CategoryBackfill.class);
+
+    @Autowired
+    private CategoryRepository categoryRepo;
+
+    @Autowired
+    private ExpenseRollupRepository rollupRepo;
+
+    @Autowired
+    private ExpenseRollupService rollupService;
+
+    @Autowired
+    private JobLockService jobLocks;
+
+    @Autowired
+    private PlatformTransactionManager txManager;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (!jobLocks.runExclusively("category-backfill", Duration.ofHours(1), this::run)) {
+            log.info("Category backfill is running on another instance");
+        }
+    }
+
+    private void run() {
+        TransactionTemplate tx = new TransactionTemplate(txManager);
+
+        int expenses = tx.execute(status -> {
+            int created = categoryRepo.backfillNames();
+            int updated = categoryRepo.backfillExpenses();
+            categoryRepo.backfillBudgets();
+            categoryRepo.backfillRecurring();
+            if (created > 0 || updated > 0) {
+                log.info("Backfilled {} categories across {} expenses", created, updated);
+            }
+            return updated;
+        });
+
+        if (expenses > 0 || rollupRepo.count() == 0) {
+            log.info("Rebuilt category rollups for {} users", rollupService.rebuildAll());
+        }
+    }
+}
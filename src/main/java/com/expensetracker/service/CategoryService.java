@@ -0,0 +1,128 @@
+package com.expensetracker.service;
+
+import com.expensetracker.model.Category;
+import com.expensetracker.repository.CategoryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user dictionary of categories, matched case-insensitively on a lowercased key and
+ * reported with the spelling they were first stored with. Ids and names never change
+ * once created, so cached entries stay valid across instances; a miss falls back to the
+ * database before a new category is inserted.
+ */
+@Service
+public class CategoryService {
+
+    private static final int MAX_CACHED_USERS = 10_000;
+
+    @Autowired
+    private CategoryRepository repo;
+
+    @Autowired
+    private PlatformTransactionManager txManager;
+
+    private final Map<Long, UserCategories> cache = new ConcurrentHashMap<>();
+
+    private static class UserCategories {
+        final Map<String, Long> ids = new ConcurrentHashMap<>();
+        final Map<Long, String> names = new ConcurrentHashMap<>();
+
+        void put(Category c) {
+            ids.put(c.getName(), c.getId());
+            names.put(c.getId(), c.getDisplayName());
+        }
+    }
+
+    // the lookup key for a category name
+    public static String canonical(String name) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // returns null for blank or unknown names without creating anything
+    public Long idOf(Long userId, String name) {
+        String key = canonical(name);
+        if (key == null) {
+            return null;
+        }
+        Long id = categories(userId).ids.get(key);
+        if (id == null) {
+            id = repo.findByUserIdAndName(userId, key).map(c -> {
+                cache(userId, c);
+                return c.getId();
+            }).orElse(null);
+        }
+        return id;
+    }
+
+    // creates the category in the caller's transaction, or in its own when there is none; the
+    // upsert is idempotent, so concurrent creators wait on the unique key and read the same row
+    public Long resolve(Long userId, String name) {
+        String key = canonical(name);
+        if (key == null) {
+            return null;
+        }
+        Long id = idOf(userId, key);
+        if (id != null) {
+            return id;
+        }
+
+        Category created = new TransactionTemplate(txManager).execute(status -> {
+            repo.insertIfAbsent(userId, key, name.trim());
+            return repo.lockByUserIdAndName(userId, key)
+                    .orElseThrow(() -> new RuntimeException("Category not found"));
+        });
+        cache(userId, created);
+        return created.getId();
+    }
+
+    public String nameOf(Long userId, Long id) {
+        if (id == null || id == 0) {
+            return "";
+        }
+        String name = categories(userId).names.get(id);
+        if (name == null) {
+            name = repo.findById(id).filter(c -> c.getUserId().equals(userId)).map(c -> {
+                cache(userId, c);
+                return c.getDisplayName();
+            }).orElse("");
+        }
+        return name;
+    }
+
+    // a row read inside a transaction may be its own uncommitted insert; it reaches
+    // the cache only once committed
+    private void cache(Long userId, Category c) {
+        AfterCommit.run(() -> categories(userId).put(c));
+    }
+
+    private UserCategories categories(Long userId) {
+        UserCategories categories = cache.get(userId);
+        if (categories != null) {
+            return categories;
+        }
+
+        UserCategories loaded = new UserCategories();
+        repo.findByUserId(userId).forEach(loaded::put);
+
+        if (cache.size() >= MAX_CACHED_USERS) {
+            Iterator<Long> it = cache.keySet().iterator();
+            if (it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+        categories = cache.putIfAbsent(userId, loaded);
+        return categories != null ? categories : loaded;
+    }
+}
@@ -0,0 +1,72 @@
+package com.expensetracker.service;
+
+import com.expensetracker.repository.DataVersionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * A per-user counter bumped by every expense, budget and recurring write, in the
+ * same transaction as the write, so it can tag responses for conditional GETs and
+ * tell in-memory caches whether they have seen every committed write.
+ */
+@Service
+public class DataVersionService {
+
+    @Autowired
+    private DataVersionRepository repo;
+
+    public void bump(Long userId) {
+        repo.bump(userId);
+        Map<Long, Long> read = committingVersions(false);
+        if (read != null) {
+            read.remove(userId);
+        }
+    }
+
+    // ascending order, so batches touching overlapping users lock the rows in the same order
+    public void bumpAll(Collection<Long> userIds) {
+        for (Long userId : new TreeSet<>(userIds)) {
+            bump(userId);
+        }
+    }
+
+    public long current(Long userId) {
+        return repo.findVersion(userId).orElse(0L);
+    }
+
+    // the version the current transaction's writes commit as. The bump holds the row lock until
+    // commit, so the value read after it is exact; it is read once per transaction and user.
+    public long committing(Long userId) {
+        Map<Long, Long> read = committingVersions(true);
+        if (read == null) {
+            return current(userId);
+        }
+        return read.computeIfAbsent(userId, this::current);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, Long> committingVersions(boolean create) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        Map<Long, Long> read = (Map<Long, Long>) TransactionSynchronizationManager.getResource(this);
+        if (read == null && create) {
+            read = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, read);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(DataVersionService.this);
+                }
+            });
+        }
+        return read;
+    }
+}
@@ -0,0 +1,448 @@
+package com.expensetracker.service;
+
+import com.expensetracker.dto.PeriodSummary;
+import com.expensetracker.model.Expense;
+import com.expensetracker.repository.ExpenseJdbcRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Summaries over a per-user columnar snapshot of expenses: ids, epoch days,
+ * amounts in cents and category ids mapped to dense local codes, kept sorted by id.
+ * Snapshots hold only rows inside the archive horizon. Ranges reaching further
+ * back, users whose snapshot would not fit under the memory cap, or every user
+ * when disabled, are answered from the rollup table instead, which still counts
+ * archived expenses. Each snapshot records the user's data version it reflects and
+ * is reloaded when a read finds the version moved on, e.g. after a write elsewhere.
+ */
+@Service
+public class ExpenseAnalytics {
+
+    private static final int BYTES_PER_ROW = Long.BYTES + Integer.BYTES + Long.BYTES + Integer.BYTES;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final long STALE = -1;
+
+    @Autowired
+    private ExpenseJdbcRepository jdbcRepo;
+
+    @Autowired
+    private ExpenseRollupService rollupService;
+
+    @Autowired
+    private CategoryService categories;
+
+    @Autowired
+    private DataVersionService versions;
+
+    @Value("${analytics.snapshot.enabled:true}")
+    private boolean enabled;
+
+    @Value("${analytics.snapshot.max-bytes:67108864}")
+    private long maxBytes;
+
+    @Value("${archive.horizon-days:730}")
+    private int horizonDays;
+
+    private final Map<Long, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private final Set<Long> oversized = ConcurrentHashMap.newKeySet();
+    private final AtomicLong reservedBytes = new AtomicLong();
+
+    private class Snapshot {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        final List<Long> categoryIds = new ArrayList<>();
+        final Map<Long, Integer> codes = new HashMap<>();
+        long[] ids = new long[INITIAL_CAPACITY];
+        int[] days = new int[INITIAL_CAPACITY];
+        long[] cents = new long[INITIAL_CAPACITY];
+        int[] categories = new int[INITIAL_CAPACITY];
+        int size;
+        // bounds of the days ever stored; removals leave them wide, which is harmless
+        int minDay = Integer.MAX_VALUE;
+        int maxDay = Integer.MIN_VALUE;
+        long accounted;
+        boolean released;
+        volatile long lastAccess = System.nanoTime();
+        volatile long version;
+
+        long footprint() {
+            return (long) ids.length * BYTES_PER_ROW;
+        }
+
+        // callers hold the write lock
+        void account() {
+            if (!released) {
+                reservedBytes.addAndGet(footprint() - accounted);
+                accounted = footprint();
+            }
+        }
+
+        int code(long categoryId) {
+            return codes.computeIfAbsent(categoryId, id -> {
+                categoryIds.add(id);
+                return categoryIds.size() - 1;
+            });
+        }
+
+        void put(long id, int day, long amount, int category) {
+            int i = size > 0 && id > ids[size - 1] ? -size - 1 : Arrays.binarySearch(ids, 0, size, id);
+            if (i < 0) {
+                i = -i - 1;
+                grow();
+                System.arraycopy(ids, i, ids, i + 1, size - i);
+                System.arraycopy(days, i, days, i + 1, size - i);
+                System.arraycopy(cents, i, cents, i + 1, size - i);
+                System.arraycopy(categories, i, categories, i + 1, size - i);
+                size++;
+            }
+            ids[i] = id;
+            days[i] = day;
+            minDay = Math.min(minDay, day);
+            maxDay = Math.max(maxDay, day);
+            cents[i] = amount;
+            categories[i] = category;
+        }
+
+        void remove(long id) {
+            int i = Arrays.binarySearch(ids, 0, size, id);
+            if (i < 0) {
+                return;
+            }
+            int tail = size - i - 1;
+            System.arraycopy(ids, i + 1, ids, i, tail);
+            System.arraycopy(days, i + 1, days, i, tail);
+            System.arraycopy(cents, i + 1, cents, i, tail);
+            System.arraycopy(categories, i + 1, categories, i, tail);
+            size--;
+        }
+
+        private void grow() {
+            if (size < ids.length) {
+                return;
+            }
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            days = Arrays.copyOf(days, capacity);
+            cents = Arrays.copyOf(cents, capacity);
+            categories = Arrays.copyOf(categories, capacity);
+        }
+    }
+
+    public double getTotal(Long userId, LocalDate from, LocalDate to, String category) {
+        Long categoryId = categories.idOf(userId, category);
+        if (category != null && categoryId == null) {
+            return 0;
+        }
+
+        Snapshot s = acquire(userId, from);
+        if (s == null) {
+            return rollupService.getTotal(userId, from, to, categoryId);
+        }
+
+        int lo = (int) from.toEpochDay();
+        int hi = (int) to.toEpochDay();
+        long sum = 0;
+
+        s.lock.readLock().lock();
+        try {
+            int code = categoryId == null ? -1 : s.codes.getOrDefault(categoryId, -2);
+            if (code == -2) {
+                return 0;
+            }
+            int[] days = s.days;
+            int[] categories = s.categories;
+            long[] cents = s.cents;
+            for (int i = 0; i < s.size; i++) {
+                int day = days[i];
+                if (day >= lo && day <= hi && (code < 0 || categories[i] == code)) {
+                    sum += cents[i];
+                }
+            }
+        } finally {
+            s.lock.readLock().unlock();
+        }
+        return sum / 100.0;
+    }
+
+    public Map<String, Double> getCategoryTotals(Long userId, LocalDate from, LocalDate to) {
+        Snapshot s = acquire(userId, from);
+        if (s == null) {
+            return rollupService.getCategoryTotals(userId, from, to);
+        }
+
+        int lo = (int) from.toEpochDay();
+        int hi = (int) to.toEpochDay();
+        Map<Long, Long> byCategory = new LinkedHashMap<>();
+
+        s.lock.readLock().lock();
+        try {
+            long[] sums = new long[s.categoryIds.size()];
+            int[] counts = new int[s.categoryIds.size()];
+            int[] days = s.days;
+            int[] categories = s.categories;
+            long[] cents = s.cents;
+            for (int i = 0; i < s.size; i++) {
+                int day = days[i];
+                if (day >= lo && day <= hi) {
+                    sums[categories[i]] += cents[i];
+                    counts[categories[i]]++;
+                }
+            }
+            for (int c = 0; c < sums.length; c++) {
+                if (counts[c] > 0) {
+                    byCategory.put(s.categoryIds.get(c), sums[c]);
+                }
+            }
+        } finally {
+            s.lock.readLock().unlock();
+        }
+
+        Map<String, Double> totals = new LinkedHashMap<>();
+        byCategory.forEach((categoryId, cents) -> totals.put(categories.nameOf(userId, categoryId), cents / 100.0));
+        return totals;
+    }
+
+    public Map<String, Double> getDailyTotals(Long userId, LocalDate from, LocalDate to) {
+        Snapshot s = acquire(userId, from);
+        if (s == null) {
+            return rollupService.getDailyTotals(userId, from, to);
+        }
+
+        int lo = (int) from.toEpochDay();
+        int hi = (int) to.toEpochDay();
+        Map<String, Double> totals = new LinkedHashMap<>();
+        long[] sums;
+        int[] counts;
+
+        s.lock.readLock().lock();
+        try {
+            int[] days = s.days;
+            long[] cents = s.cents;
+
+            // narrow the requested range to the days present so wide ranges stay cheap
+            int first = Integer.MAX_VALUE;
+            int last = Integer.MIN_VALUE;
+            for (int i = 0; i < s.size; i++) {
+                int day = days[i];
+                if (day >= lo && day <= hi) {
+                    first = Math.min(first, day);
+                    last = Math.max(last, day);
+                }
+            }
+            if (first > last) {
+                return totals;
+            }
+            lo = first;
+            hi = last;
+
+            sums = new long[hi - lo + 1];
+            counts = new int[hi - lo + 1];
+            for (int i = 0; i < s.size; i++) {
+                int day = days[i];
+                if (day >= lo && day <= hi) {
+                    sums[day - lo] += cents[i];
+                    counts[day - lo]++;
+                }
+            }
+        } finally {
+            s.lock.readLock().unlock();
+        }
+
+        for (int d = 0; d < sums.length; d++) {
+            if (counts[d] > 0) {
+                totals.put(LocalDate.ofEpochDay(lo + d).toString(), sums[d] / 100.0);
+            }
+        }
+        return totals;
+    }
+
+    // total, category breakdown and daily series in a single pass over the snapshot
+    public PeriodSummary summarize(Long userId, LocalDate from, LocalDate to) {
+        Snapshot s = acquire(userId, from);
+        if (s == null) {
+            return rollupService.summarize(userId, from, to);
+        }
+
+        long total = 0;
+        List<Long> categoryIds;
+        long[] categorySums;
+        int[] categoryCounts;
+        long[] daySums;
+        int[] dayCounts;
+        int lo;
+
+        s.lock.readLock().lock();
+        try {
+            lo = Math.max((int) from.toEpochDay(), s.minDay);
+            int hi = Math.min((int) to.toEpochDay(), s.maxDay);
+            int span = Math.max(hi - lo + 1, 0);
+
+            categoryIds = List.copyOf(s.categoryIds);
+            categorySums = new long[categoryIds.size()];
+            categoryCounts = new int[categoryIds.size()];
+            daySums = new long[span];
+            dayCounts = new int[span];
+
+            int[] days = s.days;
+            int[] categories = s.categories;
+            long[] cents = s.cents;
+            for (int i = 0; i < s.size; i++) {
+                int day = days[i];
+                if (day >= lo && day <= hi) {
+                    long amount = cents[i];
+                    total += amount;
+                    categorySums[categories[i]] += amount;
+                    categoryCounts[categories[i]]++;
+                    daySums[day - lo] += amount;
+                    dayCounts[day - lo]++;
+                }
+            }
+        } finally {
+            s.lock.readLock().unlock();
+        }
+
+        Map<String, Double> categoryTotals = new LinkedHashMap<>();
+        for (int c = 0; c < categorySums.length; c++) {
+            if (categoryCounts[c] > 0) {
+                categoryTotals.put(categories.nameOf(userId, categoryIds.get(c)), categorySums[c] / 100.0);
+            }
+        }
+        Map<String, Double> dailyTotals = new LinkedHashMap<>();
+        for (int d = 0; d < daySums.length; d++) {
+            if (dayCounts[d] > 0) {
+                dailyTotals.put(LocalDate.ofEpochDay(lo + d).toString(), daySums[d] / 100.0);
+            }
+        }
+        return new PeriodSummary(total / 100.0, categoryTotals, dailyTotals);
+    }
+
+    public void index(Long userId, Expense e) {
+        if (!enabled || e.getDate() == null) {
+            return;
+        }
+        long id = e.getId();
+        int day = (int) e.getDate().toLocalDate().toEpochDay();
+        long amount = toCents(e.getAmount());
+        long categoryId = e.getCategoryId() != null ? e.getCategoryId() : 0;
+        long version = versions.committing(userId);
+        AfterCommit.run(() -> update(userId, version, s -> s.put(id, day, amount, s.code(categoryId))));
+    }
+
+    public void remove(Long userId, Long expenseId) {
+        if (enabled) {
+            long version = versions.committing(userId);
+            AfterCommit.run(() -> update(userId, version, s -> s.remove(expenseId)));
+        }
+    }
+
+    public void invalidate(Long userId) {
+        AfterCommit.run(() -> {
+            oversized.remove(userId);
+            Snapshot s = snapshots.get(userId);
+            if (s != null) {
+                release(userId, s);
+            }
+        });
+    }
+
+    // users without a loaded snapshot are skipped: their next summary loads from
+    // the committed table state, which already includes this write. A snapshot that
+    // skipped a version is marked stale and reloaded by the next summary.
+    private void update(Long userId, long version, Consumer<Snapshot> op) {
+        Snapshot s = snapshots.get(userId);
+        if (s == null) {
+            return;
+        }
+        s.lock.writeLock().lock();
+        try {
+            op.accept(s);
+            s.account();
+            s.version = s.version == version - 1 || s.version == version ? version : STALE;
+        } finally {
+            s.lock.writeLock().unlock();
+        }
+        evictIfFull();
+    }
+
+    private Snapshot acquire(Long userId, LocalDate from) {
+        LocalDate hotSince = LocalDate.now().minusDays(horizonDays);
+        if (!enabled || oversized.contains(userId) || from.isBefore(hotSince)) {
+            return null;
+        }
+        // read before the rows, so a write committed during the load only costs another reload
+        long version = versions.current(userId);
+        Snapshot s = snapshots.get(userId);
+        if (s != null) {
+            if (s.version == version) {
+                s.lastAccess = System.nanoTime();
+                return s;
+            }
+            release(userId, s);
+        }
+
+        // the loader holds the write lock before publishing, so concurrent writers
+        // and readers wait for the load and apply their changes on top of it
+        Snapshot fresh = new Snapshot();
+        fresh.version = version;
+        fresh.lock.writeLock().lock();
+        try {
+            Snapshot existing = snapshots.putIfAbsent(userId, fresh);
+            if (existing != null) {
+                return existing;
+            }
+            try {
+                jdbcRepo.scanColumns(userId, hotSince.atStartOfDay(), (id, day, amount, categoryId) -> {
+                    fresh.put(id, (int) day, toCents(amount), fresh.code(categoryId));
+                    return fresh.footprint() <= maxBytes;
+                });
+            } catch (RuntimeException e) {
+                release(userId, fresh);
+                throw e;
+            }
+            if (fresh.footprint() > maxBytes) {
+                oversized.add(userId);
+                release(userId, fresh);
+                return null;
+            }
+            fresh.account();
+        } finally {
+            fresh.lock.writeLock().unlock();
+        }
+
+        evictIfFull();
+        return fresh;
+    }
+
+    private void evictIfFull() {
+        while (reservedBytes.get() > maxBytes && snapshots.size() > 1) {
+            snapshots.entrySet().stream()
+                    .min(Comparator.comparingLong(entry -> entry.getValue().lastAccess))
+                    .ifPresent(entry -> release(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    private void release(Long userId, Snapshot s) {
+        if (!snapshots.remove(userId, s)) {
+            return;
+        }
+        s.lock.writeLock().lock();
+        try {
+            s.released = true;
+            reservedBytes.addAndGet(-s.accounted);
+            s.accounted = 0;
+        } finally {
+            s.lock.writeLock().unlock();
+        }
+    }
+
+    private static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+}
@@ -0,0 +1,114 @@
+package com.expensetracker.service;
+
+import com.expensetracker.repository.ExpenseArchiveRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Moves soft-deleted expenses, and those dated before the horizon, from the hot
+ * table into expense_archive, one bounded batch per transaction. Rollups keep
+ * counting archived spending, so summaries and budgets are unaffected. The
+ * scheduled run holds a job lock, so only one instance archives at a time.
+ */
+@Service
+public class ExpenseArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpenseArchiveService.class);
+
+    @Autowired
+    private ExpenseArchiveRepository repo;
+
+    @Autowired
+    private ExpenseSearchIndex searchIndex;
+
+    @Autowired
+    private DataVersionService versions;
+
+    @Autowired
+    private JobLockService jobLocks;
+
+    @Autowired
+    private PlatformTransactionManager txManager;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Value("${archive.horizon-days:730}")
+    private int horizonDays;
+
+    @Value("${archive.batch-size:1000}")
+    private int batchSize;
+
+    @Scheduled(cron = "0 0 4 * * ?")
+    public void archiveColdExpenses() {
+        boolean ran = jobLocks.runExclusively("expense-archive", Duration.ofHours(2), () -> {
+            int moved = archive(LocalDateTime.now());
+            log.info("Archived {} expenses", moved);
+        });
+        if (!ran) {
+            log.info("Expense archival is running on another instance");
+        }
+    }
+
+    public int archive(LocalDateTime now) {
+        LocalDateTime cutoff = now.toLocalDate().minusDays(horizonDays).atStartOfDay();
+        TransactionTemplate tx = new TransactionTemplate(txManager);
+
+        int total = 0;
+        Batch batch;
+        do {
+            batch = tx.execute(status -> moveBatch(cutoff, now));
+            total += batch.moved();
+            // a batch that moved nothing only found rows locked by users, so stop until the next run
+        } while (batch.found() == batchSize && batch.moved() > 0);
+
+        registry.counter("expenses.archived").increment(total);
+        return total;
+    }
+
+    private record Batch(int found, int moved) {
+    }
+
+    private Batch moveBatch(LocalDateTime cutoff, LocalDateTime now) {
+        List<Long> candidates = repo.findArchivable(cutoff, batchSize);
+        if (candidates.isEmpty()) {
+            return new Batch(0, 0);
+        }
+        List<Object[]> rows = repo.lockArchivable(candidates, cutoff);
+        if (rows.isEmpty()) {
+            return new Batch(candidates.size(), 0);
+        }
+
+        List<Long> ids = new ArrayList<>(rows.size());
+        Set<Long> userIds = new HashSet<>();
+        for (Object[] row : rows) {
+            ids.add(((Number) row[0]).longValue());
+            if (row[1] != null) {
+                userIds.add(((Number) row[1]).longValue());
+            }
+        }
+
+        repo.copyFromHot(ids, now);
+        repo.deleteFromHot(ids);
+        versions.bumpAll(userIds);
+
+        // analytics snapshots never load rows past the horizon and soft-deleted rows
+        // were already dropped from them, so only the search index has to be rebuilt
+        userIds.forEach(searchIndex::invalidate);
+        return new Batch(candidates.size(), ids.size());
+    }
+}
@@ -0,0 +1,264 @@
+package com.expensetracker.service;
+
+import com.expensetracker.dto.ImportResult;
+import com.expensetracker.model.Expense;
+import com.expensetracker.repository.ExpenseJdbcRepository;
+import com.expensetracker.security.AuthenticatedUser;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams bulk uploads into the expense table in chunks of {@code expense.import.batch-size},
+ * each committed in its own transaction. Rows that fail validation are counted and reported
+ * without stopping the import. A chunk whose insert fails is rolled back and every row in it
+ * is reported as failed, so each row ends up either imported or failed. A malformed document
+ * (broken JSON or CSV syntax) aborts the request part way through, and chunks committed
+ * before that point stay imported.
+ */
+@Service
+public class ExpenseImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpenseImportService.class);
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    // title, category, note and tags are VARCHAR(255); longer values are rejected per row
+    // rather than failing the insert of the whole chunk they land in
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    private static final CsvMapper CSV = new CsvMapper();
+
+    @Autowired
+    private ExpenseJdbcRepository jdbcRepo;
+
+    @Autowired
+    private ExpenseRollupService rollupService;
+
+    @Autowired
+    private ExpenseSearchIndex searchIndex;
+
+    @Autowired
+    private ExpenseAnalytics analytics;
+
+    @Autowired
+    private CategoryService categories;
+
+    @Autowired
+    private BudgetTracker budgetTracker;
+
+    @Autowired
+    private DataVersionService versions;
+
+    @Autowired
+    private PlatformTransactionManager txManager;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Value("${expense.import.batch-size:500}")
+    private int batchSize;
+
+    public ImportResult importJson(InputStream in) throws IOException {
+        Batch batch = new Batch(AuthenticatedUser.current().id());
+
+        try (JsonParser parser = mapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of expenses");
+            }
+            int row = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new IllegalArgumentException("Unterminated JSON array of expenses");
+                }
+                row++;
+                if (token != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    batch.reject(row, "expected an object");
+                    continue;
+                }
+                JsonNode node = mapper.readTree(parser);
+                Expense e;
+                try {
+                    e = toExpense(text(node, "title"), text(node, "amount"), text(node, "category"),
+                            text(node, "note"), text(node, "tags"), text(node, "date"));
+                } catch (RuntimeException ex) {
+                    batch.reject(row, ex.getMessage());
+                    continue;
+                }
+                batch.add(row, e);
+            }
+        } catch (JsonProcessingException e) {
+            throw malformed(e);
+        }
+        return batch.finish();
+    }
+
+    public ImportResult importCsv(InputStream in) throws IOException {
+        Batch batch = new Batch(AuthenticatedUser.current().id());
+
+        try (MappingIterator<Map<String, String>> rows = CSV.readerForMapOf(String.class)
+                .with(CsvSchema.emptySchema().withHeader())
+                .readValues(in)) {
+            int row = 0;
+            while (rows.hasNextValue()) {
+                row++;
+                Map<String, String> r = rows.nextValue();
+                Expense e;
+                try {
+                    e = toExpense(r.get("title"), r.get("amount"), r.get("category"), r.get("note"),
+                            r.get("tags"), r.get("date"));
+                } catch (RuntimeException ex) {
+                    batch.reject(row, ex.getMessage());
+                    continue;
+                }
+                batch.add(row, e);
+            }
+        } catch (JsonProcessingException e) {
+            throw malformed(e);
+        }
+        return batch.finish();
+    }
+
+    // a syntax error in the document is the client's, so it is answered as a bad request
+    private static IllegalArgumentException malformed(JsonProcessingException e) {
+        return new IllegalArgumentException("Malformed document: " + e.getOriginalMessage());
+    }
+
+    private Expense toExpense(String title, String amount, String category, String note, String tags,
+            String date) {
+        if (amount == null || amount.isBlank()) {
+            throw new IllegalArgumentException("amount is required");
+        }
+
+        checkLength("title", title);
+        checkLength("category", category);
+        checkLength("note", note);
+        checkLength("tags", tags);
+
+        Expense e = new Expense();
+        e.setTitle(title);
+        e.setAmount(parseAmount(amount));
+        e.setCategory(category);
+        e.setNote(note);
+        e.setTags(tags);
+        e.setDate(parseDate(date));
+        e.setActive(true);
+        return e;
+    }
+
+    private static void checkLength(String field, String value) {
+        if (value != null && value.length() > MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException(field + " is longer than " + MAX_TEXT_LENGTH + " characters");
+        }
+    }
+
+    private static double parseAmount(String amount) {
+        double value;
+        try {
+            value = Double.parseDouble(amount.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid amount: " + amount);
+        }
+        // parseDouble accepts NaN and Infinity, which would poison every total they reach
+        if (!Double.isFinite(value)) {
+            throw new IllegalArgumentException("invalid amount: " + amount);
+        }
+        return value;
+    }
+
+    private static LocalDateTime parseDate(String date) {
+        if (date == null || date.isBlank()) {
+            return LocalDateTime.now();
+        }
+        try {
+            return date.length() <= 10 ? LocalDate.parse(date.trim()).atStartOfDay() : LocalDateTime.parse(date.trim());
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("invalid date: " + date);
+        }
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private class Batch {
+        private final Long userId;
+        private final TransactionTemplate tx = new TransactionTemplate(txManager);
+        private final List<Expense> pending = new ArrayList<>();
+        private final List<Integer> pendingRows = new ArrayList<>();
+        private final List<ImportResult.RowError> errors = new ArrayList<>();
+        private int imported;
+        private int failed;
+
+        Batch(Long userId) {
+            this.userId = userId;
+        }
+
+        void add(int row, Expense e) {
+            e.setCategoryId(categories.resolve(userId, e.getCategory()));
+            pending.add(e);
+            pendingRows.add(row);
+            if (pending.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void reject(int row, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportResult.RowError(row, message));
+            }
+        }
+
+        ImportResult finish() {
+            flush();
+            return new ImportResult(imported, failed, errors);
+        }
+
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            try {
+                tx.executeWithoutResult(status -> {
+                    jdbcRepo.insertAll(userId, pending);
+                    versions.bump(userId);
+                    rollupService.addAll(userId, pending);
+                    searchIndex.invalidate(userId);
+                    analytics.invalidate(userId);
+                    budgetTracker.addAll(userId, pending);
+                });
+                imported += pending.size();
+            } catch (RuntimeException e) {
+                // the chunk rolled back as a whole, so none of its rows were imported
+                log.warn("Import chunk of {} rows failed for user {}", pending.size(), userId, e);
+                pendingRows.forEach(row -> reject(row, "not imported: its chunk failed to insert"));
+            }
+            pending.clear();
+            pendingRows.clear();
+        }
+    }
+}
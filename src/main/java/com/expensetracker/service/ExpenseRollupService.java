@@ -0,0 +1,152 @@
+package com.expensetracker.service;
+
+import com.expensetracker.dto.MonthTrend;
+import com.expensetracker.dto.PeriodSummary;
+import com.expensetracker.model.Expense;
+import com.expensetracker.repository.ExpenseRollupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class ExpenseRollupService {
+
+    @Autowired
+    private ExpenseRollupRepository repo;
+
+    @Autowired
+    private CategoryService categories;
+
+    @Autowired
+    private DataVersionService versions;
+
+    @Autowired
+    private PlatformTransactionManager txManager;
+
+    public void add(Long userId, Expense e) {
+        apply(userId, e.getDate().toLocalDate(), e.getCategoryId(), e.getAmount(), 1);
+    }
+
+    public void remove(Long userId, Expense e) {
+        apply(userId, e.getDate().toLocalDate(), e.getCategoryId(), -e.getAmount(), -1);
+    }
+
+    public void addAll(Long userId, List<Expense> expenses) {
+        applyAll(userId, expenses, 1);
+    }
+
+    public void removeAll(Long userId, List<Expense> expenses) {
+        applyAll(userId, expenses, -1);
+    }
+
+    private void applyAll(Long userId, List<Expense> expenses, int sign) {
+        Map<LocalDate, Map<Long, double[]>> deltas = new HashMap<>();
+        for (Expense e : expenses) {
+            double[] delta = deltas.computeIfAbsent(e.getDate().toLocalDate(), d -> new HashMap<>())
+                    .computeIfAbsent(e.getCategoryId() != null ? e.getCategoryId() : 0L, c -> new double[2]);
+            delta[0] += sign * e.getAmount();
+            delta[1] += sign;
+        }
+        deltas.forEach((day, byCategory) -> byCategory
+                .forEach((categoryId, delta) -> apply(userId, day, categoryId, delta[0], (long) delta[1])));
+    }
+
+    public void apply(Long userId, LocalDate day, Long categoryId, double amount, long count) {
+        repo.upsert(userId, day, categoryId != null ? categoryId : 0L, amount, count);
+    }
+
+    public double getTotal(Long userId, LocalDate from, LocalDate to, Long categoryId) {
+        return repo.sumTotal(userId, from, to, categoryId);
+    }
+
+    public Map<String, Double> getCategoryTotals(Long userId, LocalDate from, LocalDate to) {
+        Map<String, Double> totals = new LinkedHashMap<>();
+        for (Object[] row : repo.sumByCategory(userId, from, to)) {
+            totals.put(categories.nameOf(userId, (Long) row[0]), ((Number) row[1]).doubleValue());
+        }
+        return totals;
+    }
+
+    public Map<String, Double> getDailyTotals(Long userId, LocalDate from, LocalDate to) {
+        return toMap(repo.sumByDay(userId, from, to));
+    }
+
+    // one read of the (day, category) rows serves the total and both breakdowns
+    public PeriodSummary summarize(Long userId, LocalDate from, LocalDate to) {
+        double total = 0;
+        Map<Long, Double> byCategory = new LinkedHashMap<>();
+        Map<String, Double> daily = new LinkedHashMap<>();
+
+        for (Object[] row : repo.findDaysAndCategories(userId, from, to)) {
+            double amount = ((Number) row[2]).doubleValue();
+            total += amount;
+            byCategory.merge((Long) row[1], amount, Double::sum);
+            daily.merge(row[0].toString(), amount, Double::sum);
+        }
+
+        Map<String, Double> categoryTotals = new LinkedHashMap<>();
+        byCategory.forEach((categoryId, amount) -> categoryTotals.put(categories.nameOf(userId, categoryId), amount));
+        return new PeriodSummary(total, categoryTotals, daily);
+    }
+
+    // keyed by category name, each list runs from the first month to the last in order
+    public Map<String, List<MonthTrend>> getMonthlyTrends(Long userId, YearMonth first, int months) {
+        // the 6-month average of the first month needs the five before it
+        int lookback = 5;
+        YearMonth start = first.minusMonths(lookback);
+        List<Object[]> rows = repo.monthlyTrends(userId, start.atDay(1), first.atDay(1),
+                first.plusMonths(months - 1).atEndOfMonth(), start.getYear() * 12 + start.getMonthValue(),
+                months + lookback, lookback);
+
+        Map<String, List<MonthTrend>> trends = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            String category = categories.nameOf(userId, ((Number) row[0]).longValue());
+            String month = first.plusMonths(((Number) row[1]).intValue()).toString();
+            trends.computeIfAbsent(category, c -> new ArrayList<>(months)).add(new MonthTrend(month,
+                    ((Number) row[2]).doubleValue(), ((Number) row[3]).doubleValue(),
+                    ((Number) row[4]).doubleValue(), ((Number) row[5]).doubleValue()));
+        }
+        return trends;
+    }
+
+    // every writer bumps the user's version before applying its delta, so holding that row lock
+    // keeps deltas from landing between the delete and the insert
+    public void rebuildForUser(Long userId) {
+        versions.bump(userId);
+        repo.deleteByUserId(userId);
+        repo.rebuildForUser(userId);
+    }
+
+    @Scheduled(cron = "0 30 3 * * SUN")
+    public int rebuildAll() {
+        // read committed, so the insert-select reads the expense rows without share-locking them
+        // and a writer that inserted before taking the version lock is not deadlocked against it
+        TransactionTemplate tx = new TransactionTemplate(txManager);
+        tx.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        List<Long> userIds = repo.findUserIdsWithExpenses();
+
+        for (Long userId : userIds) {
+            tx.executeWithoutResult(status -> rebuildForUser(userId));
+        }
+        return userIds.size();
+    }
+
+    private Map<String, Double> toMap(List<Object[]> rows) {
+        Map<String, Double> totals = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            totals.put(row[0].toString(), ((Number) row[1]).doubleValue());
+        }
+        return totals;
+    }
+}
@@ -0,0 +1,223 @@
+package com.expensetracker.service;
+
+import com.expensetracker.metrics.RequestRows;
+import com.expensetracker.model.Expense;
+import com.expensetracker.repository.ExpenseRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+// built from the hot table only, so expenses moved to the archive drop out of search
+// until it learns to read archived rows as well
+@Service
+public class ExpenseSearchIndex {
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int TAGS_WEIGHT = 2;
+    private static final int NOTE_WEIGHT = 1;
+    private static final long STALE = -1;
+
+    @Autowired
+    private ExpenseRepository repo;
+
+    @Autowired
+    private DataVersionService versions;
+
+    @Value("${search.index.max-users:1000}")
+    private int maxUsers;
+
+    private final Map<Long, UserIndex> indexes = new ConcurrentHashMap<>();
+
+    public record Hits(List<Long> ids, long total) {
+    }
+
+    private record Doc(long id, LocalDateTime date, Map<String, Integer> tokens) {
+    }
+
+    private record Scored(long id, int score, LocalDateTime date) {
+    }
+
+    private static class UserIndex {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        final Map<Long, Doc> docs = new HashMap<>();
+        final TreeMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+        volatile long lastAccess = System.nanoTime();
+        // the user's data version this index reflects, or STALE once a write may be missing
+        volatile long version;
+
+        void put(Doc doc) {
+            remove(doc.id());
+            docs.put(doc.id(), doc);
+            doc.tokens().forEach((token, weight) -> postings.computeIfAbsent(token, t -> new HashMap<>())
+                    .put(doc.id(), weight));
+        }
+
+        void remove(long id) {
+            Doc old = docs.remove(id);
+            if (old == null) {
+                return;
+            }
+            for (String token : old.tokens().keySet()) {
+                Map<Long, Integer> ids = postings.get(token);
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(token);
+                }
+            }
+        }
+    }
+
+    public Hits search(Long userId, String query, int page, int size) {
+        List<String> terms = new ArrayList<>(tokenize(query, 1).keySet());
+        if (terms.isEmpty()) {
+            return new Hits(List.of(), 0);
+        }
+
+        UserIndex index = acquire(userId);
+        List<Scored> matches = new ArrayList<>();
+
+        index.lock.readLock().lock();
+        try {
+            Map<Long, Integer> scores = null;
+            for (String term : terms) {
+                Map<Long, Integer> termScores = new HashMap<>();
+                for (Map<Long, Integer> ids : index.postings.subMap(term, term + Character.MAX_VALUE).values()) {
+                    ids.forEach((id, weight) -> termScores.merge(id, weight, Math::max));
+                }
+
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    scores.keySet().retainAll(termScores.keySet());
+                    scores.replaceAll((id, score) -> score + termScores.get(id));
+                }
+                if (scores.isEmpty()) {
+                    break;
+                }
+            }
+            scores.forEach((id, score) -> matches.add(new Scored(id, score, index.docs.get(id).date())));
+        } finally {
+            index.lock.readLock().unlock();
+        }
+
+        matches.sort(Comparator.comparingInt(Scored::score).reversed()
+                .thenComparing(Scored::date, Comparator.nullsLast(Comparator.reverseOrder()))
+                .thenComparing(Comparator.comparingLong(Scored::id).reversed()));
+
+        int from = (int) Math.min((long) page * size, matches.size());
+        int to = Math.min(from + size, matches.size());
+        return new Hits(matches.subList(from, to).stream().map(Scored::id).toList(), matches.size());
+    }
+
+    public void index(Long userId, Expense e) {
+        Doc doc = toDoc(e);
+        long version = versions.committing(userId);
+        AfterCommit.run(() -> update(userId, version, index -> index.put(doc)));
+    }
+
+    public void remove(Long userId, Long expenseId) {
+        long version = versions.committing(userId);
+        AfterCommit.run(() -> update(userId, version, index -> index.remove(expenseId)));
+    }
+
+    public void invalidate(Long userId) {
+        AfterCommit.run(() -> indexes.remove(userId));
+    }
+
+    // users without a loaded index are skipped: their next search loads from the
+    // committed table state, which already includes this write. Writes to a user commit in
+    // version order, so an index that skipped one (written elsewhere, or a callback that ran
+    // late) is marked stale and reloaded by the next search.
+    private void update(Long userId, long version, Consumer<UserIndex> op) {
+        UserIndex index = indexes.get(userId);
+        if (index == null) {
+            return;
+        }
+        index.lock.writeLock().lock();
+        try {
+            op.accept(index);
+            index.version = index.version == version - 1 || index.version == version ? version : STALE;
+        } finally {
+            index.lock.writeLock().unlock();
+        }
+    }
+
+    private UserIndex acquire(Long userId) {
+        // read before the rows, so a write committed during the load only costs another reload
+        long version = versions.current(userId);
+        UserIndex index = indexes.get(userId);
+        if (index != null) {
+            if (index.version == version) {
+                index.lastAccess = System.nanoTime();
+                return index;
+            }
+            indexes.remove(userId, index);
+        }
+
+        // the loader holds the write lock before publishing the index, so concurrent
+        // writers and readers wait for the load and apply their changes on top of it
+        UserIndex fresh = new UserIndex();
+        fresh.version = version;
+        fresh.lock.writeLock().lock();
+        try {
+            UserIndex existing = indexes.putIfAbsent(userId, fresh);
+            if (existing != null) {
+                return existing;
+            }
+            try {
+                List<Object[]> rows = repo.findSearchableFieldsByUserId(userId);
+                RequestRows.add(rows.size());
+                for (Object[] row : rows) {
+                    fresh.put(toDoc((Long) row[0], (String) row[1], (String) row[2], (String) row[3],
+                            (LocalDateTime) row[4]));
+                }
+            } catch (RuntimeException e) {
+                indexes.remove(userId, fresh);
+                throw e;
+            }
+        } finally {
+            fresh.lock.writeLock().unlock();
+        }
+
+        evictIfFull();
+        return fresh;
+    }
+
+    private void evictIfFull() {
+        while (indexes.size() > maxUsers) {
+            indexes.entrySet().stream()
+                    .min(Comparator.comparingLong(entry -> entry.getValue().lastAccess))
+                    .ifPresent(entry -> indexes.remove(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    private static Doc toDoc(Expense e) {
+        return toDoc(e.getId(), e.getTitle(), e.getNote(), e.getTags(), e.getDate());
+    }
+
+    private static Doc toDoc(Long id, String title, String note, String tags, LocalDateTime date) {
+        Map<String, Integer> tokens = tokenize(note, NOTE_WEIGHT);
+        tokenize(tags, TAGS_WEIGHT).forEach((t, w) -> tokens.merge(t, w, Math::max));
+        tokenize(title, TITLE_WEIGHT).forEach((t, w) -> tokens.merge(t, w, Math::max));
+        return new Doc(id, date, tokens);
+    }
+
+    private static Map<String, Integer> tokenize(String text, int weight) {
+        Map<String, Integer> tokens = new HashMap<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.put(token, weight);
+            }
+        }
+        return tokens;
+    }
+}
@@ -1,117 +1,261 @@
 package com.expensetracker.service;
 
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.Authentication;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.expensetracker.dto.CursorPage;
+import com.expensetracker.dto.ExpenseCursor;
+import com.expensetracker.dto.ExpenseView;
+import com.expensetracker.dto.PeriodSummary;
+import com.expensetracker.dto.SearchPage;
 import com.expensetracker.model.Expense;
-import com.expensetracker.model.User;
+import com.expensetracker.repository.ExpenseArchiveRepository;
 import com.expensetracker.repository.ExpenseRepository;
+import com.expensetracker.repository.ExpenseSort;
+import com.expensetracker.repository.ExpenseSpecifications;
 import com.expensetracker.repository.UserRepository;
+import com.expensetracker.security.AuthenticatedUser;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.temporal.TemporalAdjusters;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "expense.service", histogram = true)
 public class ExpenseService {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_BULK_IDS = 1000;
+    private static final int MAX_TREND_MONTHS = 120;
+
+    private static final Comparator<ExpenseView> NEWEST_FIRST = Comparator
+            .comparing(ExpenseView::date, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+            .thenComparing(ExpenseView::id)
+            .reversed();
+
     @Autowired
     private ExpenseRepository repo;
 
+    @Autowired
+    private ExpenseArchiveRepository archiveRepo;
+
     @Autowired
     private UserRepository userRepo;
 
-    private User getCurrentUser() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String username = auth.getName();
-        return userRepo.findByUsername(username).orElseThrow();
+    @Autowired
+    private ExpenseRollupService rollupService;
+
+    @Autowired
+    private ExpenseSearchIndex searchIndex;
+
+    @Autowired
+    private BudgetTracker budgetTracker;
+
+    @Autowired
+    private ExpenseAnalytics analytics;
+
+    @Autowired
+    private CategoryService categories;
+
+    @Autowired
+    private DataVersionService versions;
+
+    private record Period(LocalDate from, LocalDate to) {
+    }
+
+    private interface PageFetch {
+        List<ExpenseView> fetch(ExpenseCursor after, int limit);
+    }
+
+    private Long getCurrentUserId() {
+        return AuthenticatedUser.current().id();
     }
 
     public List<Expense> getAllExpenses() {
-        return repo.findByUser(getCurrentUser());
+        return repo.findByUserId(getCurrentUserId());
     }
 
+    @Transactional
     public Expense addExpense(Expense expense) {
-        expense.setUser(getCurrentUser());
-        return repo.save(expense);
+        Long userId = getCurrentUserId();
+        expense.setUser(userRepo.getReferenceById(userId));
+        expense.setActive(true);
+        expense.setCategoryId(categories.resolve(userId, expense.getCategory()));
+        Expense saved = repo.save(expense);
+        versions.bump(userId);
+        rollupService.add(userId, saved);
+        searchIndex.index(userId, saved);
+        analytics.index(userId, saved);
+        budgetTracker.add(userId, saved);
+        return saved;
     }
 
+    @Transactional
     public void deleteExpense(Long id) {
-        User user = getCurrentUser();
-        Expense exp = repo.findById(id).orElseThrow(() -> new RuntimeException("Expense not found"));
+        if (deleteExpenses(List.of(id)) == 0) {
+            throw new RuntimeException("Expense not found");
+        }
+    }
 
-        if (!exp.getUser().getId().equals(user.getId())) {
-            throw new RuntimeException("Unauthorized");
+    // ids of other users' expenses are skipped like missing ones; soft-deleted rows stay
+    // until the archival job moves them out, and entity queries no longer see them
+    @Transactional
+    public int deleteExpenses(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        if (ids.size() > MAX_BULK_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_BULK_IDS + " ids per request");
         }
 
-        repo.deleteById(id);
-    }
+        Long userId = getCurrentUserId();
+        List<Expense> removed = lockOwned(ids, userId);
+        if (removed.isEmpty()) {
+            return 0;
+        }
 
-    public List<Expense> getExpensesByCategory(String category) {
-        return repo.findByUser(getCurrentUser()).stream()
-                .filter(e -> e.getCategory().equalsIgnoreCase(category))
-                .toList();
+        int deleted = repo.softDeleteOwned(ids, userId);
+        versions.bump(userId);
+        rollupService.removeAll(userId, removed);
+        budgetTracker.removeAll(userId, removed);
+        for (Expense e : removed) {
+            searchIndex.remove(userId, e.getId());
+            analytics.remove(userId, e.getId());
+        }
+        return deleted;
     }
 
-    public List<Expense> getExpensesByDateRange(LocalDateTime start, LocalDateTime end) {
-        return repo.findByUser(getCurrentUser()).stream()
-                .filter(e -> !e.getDate().isBefore(start) && !e.getDate().isAfter(end))
-                .toList();
-    }
+    @Transactional
+    public int recategorizeExpenses(String category, LocalDateTime start, LocalDateTime end, Double minAmount,
+            Double maxAmount, String newCategory) {
+
+        if (newCategory == null || newCategory.isBlank()) {
+            throw new IllegalArgumentException("newCategory is required");
+        }
+        Long userId = getCurrentUserId();
+        Long categoryId = categories.idOf(userId, category);
+        if (category != null && categoryId == null) {
+            return 0;
+        }
 
-    public List<Expense> getFilteredExpenses(String category, LocalDateTime start, LocalDateTime end,
-            Double minAmount, Double maxAmount) {
+        Long newCategoryId = categories.resolve(userId, newCategory);
+        List<Expense> matched = toDeltaRows(repo.lockMatching(userId, categoryId, start, end, minAmount,
+                maxAmount));
+        if (matched.isEmpty()) {
+            return 0;
+        }
+
+        int updated = 0;
+        List<Long> ids = matched.stream().map(Expense::getId).toList();
+        for (int from = 0; from < ids.size(); from += MAX_BULK_IDS) {
+            updated += repo.recategorize(ids.subList(from, Math.min(from + MAX_BULK_IDS, ids.size())),
+                    newCategory, newCategoryId);
+        }
+        versions.bump(userId);
 
-        return repo.findByUser(getCurrentUser()).stream()
-                .filter(e -> category == null || e.getCategory().equalsIgnoreCase(category))
-                .filter(e -> start == null || !e.getDate().isBefore(start))
-                .filter(e -> end == null || !e.getDate().isAfter(end))
-                .filter(e -> minAmount == null || e.getAmount() >= minAmount)
-                .filter(e -> maxAmount == null || e.getAmount() <= maxAmount)
+        // only the moved rows' (day, category) totals change; applyAll groups them, so this is one
+        // upsert per (day, old category) and (day, new category) rather than a rebuild of the history
+        List<Expense> moved = matched.stream()
+                .filter(e -> !Objects.equals(e.getCategoryId(), newCategoryId))
                 .toList();
+        if (!moved.isEmpty()) {
+            rollupService.removeAll(userId, moved);
+            budgetTracker.removeAll(userId, moved);
+            List<Expense> added = moved.stream()
+                    .map(e -> toDeltaRow(e.getId(), e.getDate(), e.getAmount(), newCategoryId))
+                    .toList();
+            rollupService.addAll(userId, added);
+            budgetTracker.addAll(userId, added);
+            analytics.invalidate(userId);
+        }
+        return updated;
     }
 
-    public Map<String, Object> getSpendingSummary(String period, String category, String start, String end) {
+    @Transactional
+    public int retagExpenses(String category, LocalDateTime start, LocalDateTime end, Double minAmount,
+            Double maxAmount, String tags) {
 
-        LocalDateTime from, to;
+        // an explicit empty string clears the tags; a missing field is not taken to mean that
+        if (tags == null) {
+            throw new IllegalArgumentException("tags is required");
+        }
+        Long userId = getCurrentUserId();
+        Long categoryId = categories.idOf(userId, category);
+        if (category != null && categoryId == null) {
+            return 0;
+        }
 
-        if (period.equalsIgnoreCase("day")) {
-            from = LocalDate.now().atStartOfDay();
-            to = LocalDateTime.now();
-        } else if (period.equalsIgnoreCase("week")) {
-            from = LocalDate.now().with(java.time.DayOfWeek.MONDAY).atStartOfDay();
-            to = LocalDateTime.now();
-        } else if (period.equalsIgnoreCase("month")) {
-            from = LocalDate.now().with(TemporalAdjusters.firstDayOfMonth()).atStartOfDay();
-            to = LocalDateTime.now();
-        } else if (period.equalsIgnoreCase("custom") && start != null && end != null) {
-            from = LocalDate.parse(start).atStartOfDay();
-            to = LocalDate.parse(end).atTime(23, 59, 59);
-        } else {
-            throw new IllegalArgumentException("Invalid period");
+        int updated = repo.retagOwned(userId, categoryId, start, end, minAmount, maxAmount, tags);
+        if (updated > 0) {
+            versions.bump(userId);
+            searchIndex.invalidate(userId);
         }
+        return updated;
+    }
 
-        List<Expense> expenses = repo.findByUser(getCurrentUser()).stream()
-                .filter(e -> !e.getDate().isBefore(from) && !e.getDate().isAfter(to))
-                .toList();
+    public List<Expense> getExpensesByCategory(String category) {
+        Long userId = getCurrentUserId();
+        Long categoryId = categories.idOf(userId, category);
+        if (categoryId == null) {
+            return List.of();
+        }
+        return repo.findAll(ExpenseSpecifications.filter(userId, categoryId, null, null, null, null));
+    }
 
-        if (category != null) {
-            expenses = expenses.stream()
-                    .filter(e -> e.getCategory().equalsIgnoreCase(category))
-                    .toList();
+    public List<Expense> getExpensesByDateRange(LocalDateTime start, LocalDateTime end) {
+        return repo.findAll(ExpenseSpecifications.filter(getCurrentUserId(), null, start, end, null, null));
+    }
+
+    // list reads return projections, and a read-only transaction puts the Hibernate session in
+    // manual flush with read-only defaults, so nothing is snapshotted or dirty-checked
+    @Transactional(readOnly = true)
+    public CursorPage<ExpenseView> getFilteredExpenses(String category, LocalDateTime start, LocalDateTime end,
+            Double minAmount, Double maxAmount, String cursor, Integer size, boolean includeArchived) {
+
+        Long userId = getCurrentUserId();
+        Long categoryId = categories.idOf(userId, category);
+        if (category != null && categoryId == null) {
+            return new CursorPage<>(List.of(), null, false);
         }
+        Specification<Expense> spec = ExpenseSpecifications.filter(userId, categoryId, start, end, minAmount,
+                maxAmount);
+        if (!includeArchived) {
+            return findPage(spec, ExpenseSort.DATE, true, cursor, size);
+        }
+
+        // both tables are read with the same seek and limit, and the merged rows cut back to the limit
+        return findPage(ExpenseSort.DATE, true, cursor, size, (after, limit) -> {
+            LocalDateTime afterDate = after != null ? (LocalDateTime) after.key() : null;
+            Long afterId = after != null ? after.id() : null;
+
+            List<ExpenseView> rows = new ArrayList<>(repo.findPage(spec, ExpenseSort.DATE, true, afterDate,
+                    afterId, limit));
+            rows.addAll(archiveRepo.findPage(userId, categoryId, start, end, minAmount, maxAmount, afterDate,
+                    afterId, PageRequest.of(0, limit)));
+            rows.sort(NEWEST_FIRST);
+            return rows.size() > limit ? rows.subList(0, limit) : rows;
+        });
+    }
+
+    public Map<String, Object> getSpendingSummary(String period, String category, String start, String end) {
 
-        double total = expenses.stream().mapToDouble(Expense::getAmount).sum();
+        Period range = resolvePeriod(period, start, end);
+
+        double total = analytics.getTotal(getCurrentUserId(), range.from(), range.to(), category);
 
         Map<String, Object> res = new HashMap<>();
         res.put("period", period);
         res.put("totalSpent", total);
-        res.put("from", from.toLocalDate().toString());
-        res.put("to", to.toLocalDate().toString());
+        res.put("from", range.from().toString());
+        res.put("to", range.to().toString());
 
         if (category != null)
             res.put("category", category);
@@ -119,111 +263,184 @@ public class ExpenseService {
         return res;
     }
 
+    // totals are keyed by category id, and names differing only in case share one id, so
+    // "Food" and "food" are reported together under the spelling stored first
     public Map<String, Object> getCategoryWiseSummary(String period, String start, String end) {
 
-        LocalDateTime from, to;
+        Period range = resolvePeriod(period, start, end);
 
-        if (period.equalsIgnoreCase("day")) {
-            from = LocalDate.now().atStartOfDay();
-            to = LocalDateTime.now();
-        } else if (period.equalsIgnoreCase("week")) {
-            from = LocalDate.now().with(java.time.DayOfWeek.MONDAY).atStartOfDay();
-            to = LocalDateTime.now();
-        } else if (period.equalsIgnoreCase("month")) {
-            from = LocalDate.now().with(TemporalAdjusters.firstDayOfMonth()).atStartOfDay();
-            to = LocalDateTime.now();
-        } else if (period.equalsIgnoreCase("custom") && start != null && end != null) {
-            from = LocalDate.parse(start).atStartOfDay();
-            to = LocalDate.parse(end).atTime(23, 59, 59);
-        } else {
-            throw new IllegalArgumentException("Invalid period");
-        }
-
-        List<Expense> expenses = repo.findByUser(getCurrentUser()).stream()
-                .filter(e -> !e.getDate().isBefore(from) && !e.getDate().isAfter(to))
-                .toList();
-
-        Map<String, Double> map = expenses.stream()
-                .collect(Collectors.groupingBy(Expense::getCategory,
-                        Collectors.summingDouble(Expense::getAmount)));
+        Map<String, Double> map = analytics.getCategoryTotals(getCurrentUserId(), range.from(), range.to());
 
         Map<String, Object> res = new HashMap<>();
-        res.put("from", from.toLocalDate().toString());
-        res.put("to", to.toLocalDate().toString());
+        res.put("from", range.from().toString());
+        res.put("to", range.to().toString());
         res.put("categoryTotals", map);
 
         return res;
     }
 
+    public Map<String, Object> getDashboard(String period, String start, String end) {
+
+        Long userId = getCurrentUserId();
+        Period range = resolvePeriod(period, start, end);
+
+        PeriodSummary summary = analytics.summarize(userId, range.from(), range.to());
+
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put("period", period);
+        res.put("from", range.from().toString());
+        res.put("to", range.to().toString());
+        res.put("totalSpent", summary.total());
+        res.put("categoryTotals", summary.categoryTotals());
+        res.put("dailyTotals", summary.dailyTotals());
+        res.put("budgets", budgetTracker.getStatus(userId));
+
+        return res;
+    }
+
+    public Map<String, Object> getTrends(int months) {
+
+        if (months < 1 || months > MAX_TREND_MONTHS) {
+            throw new IllegalArgumentException("months must be between 1 and " + MAX_TREND_MONTHS);
+        }
+        YearMonth last = YearMonth.now();
+        YearMonth first = last.minusMonths(months - 1);
+
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put("from", first.toString());
+        res.put("to", last.toString());
+        res.put("months", months);
+        res.put("categories", rollupService.getMonthlyTrends(getCurrentUserId(), first, months));
+
+        return res;
+    }
+
     public Map<String, Double> getDailySummary(String start, String end) {
 
-        LocalDateTime from = LocalDate.parse(start).atStartOfDay();
-        LocalDateTime to = LocalDate.parse(end).atTime(23, 59, 59);
+        return analytics.getDailyTotals(getCurrentUserId(), LocalDate.parse(start), LocalDate.parse(end));
+    }
 
-        List<Expense> expenses = repo.findByUser(getCurrentUser()).stream()
-                .filter(e -> !e.getDate().isBefore(from) && !e.getDate().isAfter(to))
-                .toList();
+    private static Period resolvePeriod(String period, String start, String end) {
+        LocalDate today = LocalDate.now();
 
-        return expenses.stream()
-                .collect(Collectors.groupingBy(
-                        e -> e.getDate().toLocalDate().toString(),
-                        Collectors.summingDouble(Expense::getAmount)));
+        if (period.equalsIgnoreCase("day")) {
+            return new Period(today, today);
+        } else if (period.equalsIgnoreCase("week")) {
+            return new Period(today.with(DayOfWeek.MONDAY), today);
+        } else if (period.equalsIgnoreCase("month")) {
+            return new Period(today.with(TemporalAdjusters.firstDayOfMonth()), today);
+        } else if (period.equalsIgnoreCase("custom") && start != null && end != null) {
+            return new Period(LocalDate.parse(start), LocalDate.parse(end));
+        }
+        throw new IllegalArgumentException("Invalid period");
     }
 
+    @Transactional
     public Expense updateExpense(Long id, Expense expenseDetails) {
 
-        User user = getCurrentUser();
-        Expense existing = repo.findById(id)
-                .orElseThrow(() -> new RuntimeException("Expense not found"));
-
-        if (!existing.getUser().getId().equals(user.getId())) {
-            throw new RuntimeException("Unauthorized");
+        Long userId = getCurrentUserId();
+        List<Expense> locked = lockOwned(List.of(id), userId);
+        if (locked.isEmpty()) {
+            throw new RuntimeException("Expense not found");
         }
+        Expense existing = locked.get(0);
+
+        // a missing date keeps the stored one: rollups, budgets and analytics bucket every row by day,
+        // so an update must not leave an undated row behind (the original update wrote null)
+        Expense updated = new Expense(id, expenseDetails.getTitle(), expenseDetails.getAmount(),
+                expenseDetails.getCategory(),
+                expenseDetails.getDate() != null ? expenseDetails.getDate() : existing.getDate(),
+                expenseDetails.getNote(), expenseDetails.getTags(), null);
+        updated.setCategoryId(categories.resolve(userId, expenseDetails.getCategory()));
+
+        repo.updateOwned(id, userId, updated.getTitle(), updated.getAmount(), updated.getCategory(),
+                updated.getCategoryId(), updated.getDate(), updated.getNote(), updated.getTags());
+        versions.bump(userId);
+        rollupService.remove(userId, existing);
+        budgetTracker.remove(userId, existing);
+        rollupService.add(userId, updated);
+        searchIndex.index(userId, updated);
+        analytics.index(userId, updated);
+        budgetTracker.add(userId, updated);
+        return updated;
+    }
 
-        existing.setAmount(expenseDetails.getAmount());
-        existing.setCategory(expenseDetails.getCategory());
-        existing.setDate(expenseDetails.getDate());
-        existing.setTitle(expenseDetails.getTitle());
-        existing.setNote(expenseDetails.getNote());
-        existing.setTags(expenseDetails.getTags());
+    private List<Expense> lockOwned(Collection<Long> ids, Long userId) {
+        return toDeltaRows(repo.lockOwned(ids, userId));
+    }
 
-        return repo.save(existing);
+    // only the columns the rollup, budget and analytics deltas need, read under row locks
+    private List<Expense> toDeltaRows(List<Object[]> locked) {
+        List<Expense> rows = new ArrayList<>(locked.size());
+        for (Object[] row : locked) {
+            rows.add(toDeltaRow((Long) row[0], (LocalDateTime) row[1], ((Number) row[2]).doubleValue(),
+                    (Long) row[3]));
+        }
+        return rows;
     }
 
-    public List<Expense> searchExpenses(String keyword) {
+    private Expense toDeltaRow(Long id, LocalDateTime date, double amount, Long categoryId) {
+        Expense e = new Expense();
+        e.setId(id);
+        e.setDate(date);
+        e.setAmount(amount);
+        e.setCategoryId(categoryId);
+        return e;
+    }
 
-        String key = keyword.toLowerCase();
+    @Transactional(readOnly = true)
+    public SearchPage<ExpenseView> searchExpenses(String keyword, int page, Integer size) {
 
-        return repo.findByUser(getCurrentUser()).stream()
-                .filter(e -> (e.getTitle() != null && e.getTitle().toLowerCase().contains(key))
-                        || (e.getNote() != null && e.getNote().toLowerCase().contains(key))
-                        || (e.getTags() != null && e.getTags().toLowerCase().contains(key)))
+        if (page < 0) {
+            throw new IllegalArgumentException("page must not be negative");
+        }
+        Long userId = getCurrentUserId();
+        int limit = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        ExpenseSearchIndex.Hits hits = searchIndex.search(userId, keyword, page, limit);
+        if (hits.ids().isEmpty()) {
+            return new SearchPage<>(List.of(), page, limit, hits.total());
+        }
+
+        Map<Long, ExpenseView> byId = new HashMap<>();
+        repo.findViewsByIds(hits.ids(), userId).forEach(e -> byId.put(e.id(), e));
+
+        List<ExpenseView> items = hits.ids().stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
                 .toList();
+        return new SearchPage<>(items, page, limit, hits.total());
     }
 
-    public List<Expense> getSortedExpenses(String sortBy, String order) {
+    @Transactional(readOnly = true)
+    public CursorPage<ExpenseView> getSortedExpenses(String sortBy, String order, String cursor, Integer size) {
 
-        List<Expense> all = repo.findByUser(getCurrentUser());
+        return findPage(ExpenseSpecifications.belongsTo(getCurrentUserId()), ExpenseSort.from(sortBy),
+                order.equalsIgnoreCase("desc"), cursor, size);
+    }
 
-        Comparator<Expense> comp;
+    private CursorPage<ExpenseView> findPage(Specification<Expense> spec, ExpenseSort sort, boolean desc,
+            String cursor, Integer size) {
 
-        switch (sortBy.toLowerCase()) {
-            case "amount":
-                comp = Comparator.comparingDouble(Expense::getAmount);
-                break;
-            case "title":
-                comp = Comparator.comparing(Expense::getTitle, String.CASE_INSENSITIVE_ORDER);
-                break;
-            case "category":
-                comp = Comparator.comparing(Expense::getCategory, String.CASE_INSENSITIVE_ORDER);
-                break;
-            default:
-                comp = Comparator.comparing(Expense::getDate);
-        }
+        return findPage(sort, desc, cursor, size, (after, limit) -> repo.findPage(spec, sort, desc,
+                after != null ? after.key() : null, after != null ? after.id() : null, limit));
+    }
+
+    private CursorPage<ExpenseView> findPage(ExpenseSort sort, boolean desc, String cursor, Integer size,
+            PageFetch pages) {
 
-        if (order.equalsIgnoreCase("desc"))
-            comp = comp.reversed();
+        int limit = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        ExpenseCursor after = cursor != null ? ExpenseCursor.decode(cursor, sort, desc) : null;
 
-        return all.stream().sorted(comp).toList();
+        List<ExpenseView> rows = pages.fetch(after, limit + 1);
+
+        boolean hasMore = rows.size() > limit;
+        List<ExpenseView> items = hasMore ? rows.subList(0, limit) : rows;
+
+        String next = null;
+        if (hasMore) {
+            ExpenseView last = items.get(items.size() - 1);
+            next = new ExpenseCursor(sort, desc, sort.keyOf(last), last.id()).encode();
+        }
+        return new CursorPage<>(items, next, hasMore);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,50 @@
+package com.expensetracker.service;
+
+import com.expensetracker.repository.JobLockRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Lets a job run on one instance at a time. The lock is a row in job_lock held until
+ * the job finishes, or until maxHold passes if the holder dies, after which another
+ * instance may take it.
+ */
+@Service
+public class JobLockService {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final String owner = UUID.randomUUID().toString();
+
+    @Autowired
+    private JobLockRepository repo;
+
+    @Autowired
+    private PlatformTransactionManager txManager;
+
+    // returns false without running the job when another instance holds the lock
+    public boolean runExclusively(String name, Duration maxHold, Runnable job) {
+        TransactionTemplate tx = new TransactionTemplate(txManager);
+
+        boolean acquired = tx.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            repo.insertIfAbsent(name, EPOCH);
+            return repo.acquire(name, owner, now, now.plus(maxHold)) == 1;
+        });
+        if (!acquired) {
+            return false;
+        }
+        try {
+            job.run();
+        } finally {
+            tx.executeWithoutResult(status -> repo.release(name, owner, LocalDateTime.now()));
+        }
+        return true;
+    }
+}
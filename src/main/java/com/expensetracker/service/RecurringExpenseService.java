@@ -2,79 +2,220 @@ package com.expensetracker.service;
 
 import com.expensetracker.model.RecurringExpense;
 import com.expensetracker.model.Expense;
+import com.expensetracker.repository.ExpenseJdbcRepository;
 import com.expensetracker.repository.RecurringExpenseRepository;
+import com.expensetracker.repository.UserRepository;
+import com.expensetracker.security.AuthenticatedUser;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class RecurringExpenseService {
 
+    private static final Logger log = LoggerFactory.getLogger(RecurringExpenseService.class);
+
+    private static final int MAX_OCCURRENCES_PER_RUN = 1000;
+
     @Autowired
     private RecurringExpenseRepository repo;
 
     @Autowired
-    private ExpenseService expenseService;
+    private UserRepository userRepo;
+
+    @Autowired
+    private ExpenseJdbcRepository expenseJdbcRepo;
+
+    @Autowired
+    private ExpenseRollupService rollupService;
+
+    @Autowired
+    private ExpenseSearchIndex searchIndex;
+
+    @Autowired
+    private ExpenseAnalytics analytics;
+
+    @Autowired
+    private BudgetTracker budgetTracker;
 
+    @Autowired
+    private CategoryService categories;
+
+    @Autowired
+    private DataVersionService versions;
+
+    @Autowired
+    private PlatformTransactionManager txManager;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Value("${recurring.chunk-size:200}")
+    private int chunkSize;
+
+    @Value("${recurring.parallelism:4}")
+    private int parallelism;
+
+    @Transactional
     public RecurringExpense addRecurringExpense(RecurringExpense r) {
-        return repo.save(r);
+        Long userId = AuthenticatedUser.current().id();
+        r.setUser(userRepo.getReferenceById(userId));
+        r.setCategoryId(categories.resolve(userId, r.getCategory()));
+        RecurringExpense saved = repo.save(r);
+        versions.bump(userId);
+        return saved;
     }
 
     public List<RecurringExpense> getAllRecurring() {
-        return repo.findAll();
+        return repo.findByUserId(AuthenticatedUser.current().id());
     }
 
+    @Transactional
     public void deleteRecurringExpense(Long id) {
-        repo.deleteById(id);
+        Long userId = AuthenticatedUser.current().id();
+        if (repo.deleteByIdAndUserId(id, userId) == 0) {
+            throw new RuntimeException("Recurring expense not found");
+        }
+        versions.bump(userId);
     }
 
     @Scheduled(cron = "0 0 0 * * ?")
-    @Transactional
     public void processRecurringExpenses() {
+        int generated = catchUp(LocalDateTime.now());
+        log.info("Recurring catch-up generated {} expenses", generated);
+    }
 
-        LocalDateTime now = LocalDateTime.now();
-        List<RecurringExpense> recurringList = repo.findAll();
-
-        for (RecurringExpense r : recurringList) {
-
-            if (r.getNextDate() == null || r.getFrequency() == null) {
-                continue;
+    public int catchUp(LocalDateTime now) {
+        AtomicInteger generated = new AtomicInteger();
+        Semaphore permits = new Semaphore(parallelism);
+        Timer.Sample sample = Timer.start(registry);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            LocalDateTime afterDate = null;
+            long afterId = 0;
+            while (true) {
+                List<Object[]> due = repo.findDue(now, afterDate, afterId, PageRequest.of(0, chunkSize));
+                if (due.isEmpty()) {
+                    break;
+                }
+                Object[] last = due.get(due.size() - 1);
+                afterDate = (LocalDateTime) last[1];
+                afterId = (Long) last[0];
+                List<Long> ids = due.stream().map(row -> (Long) row[0]).toList();
+
+                permits.acquireUninterruptibly();
+                executor.submit(() -> {
+                    try {
+                        generated.addAndGet(processChunk(ids, now));
+                    } catch (RuntimeException e) {
+                        registry.counter("recurring.chunks.failed").increment();
+                        log.error("Recurring chunk starting at id {} failed", ids.get(0), e);
+                    } finally {
+                        permits.release();
+                    }
+                });
             }
+        } finally {
+            sample.stop(registry.timer("recurring.catchup"));
+        }
+        registry.counter("recurring.expenses.generated").increment(generated.get());
+        return generated.get();
+    }
 
-            int safetyCounter = 0;
-
-            while (!r.getNextDate().isAfter(now)) {
+    private int processChunk(List<Long> ids, LocalDateTime now) {
+        TransactionTemplate tx = new TransactionTemplate(txManager);
 
-                Expense expense = new Expense();
-                expense.setTitle(r.getTitle());
-                expense.setAmount(r.getAmount());
-                expense.setCategory(r.getCategory());
-                expense.setNote(r.getNote());
-                expense.setTags(r.getTags());
-                expense.setDate(r.getNextDate());
-                expense.setActive(true);
+        return tx.execute(status -> {
+            Map<Long, List<Expense>> byUser = new HashMap<>();
 
-                expenseService.addExpense(expense);
+            for (RecurringExpense r : repo.lockDue(ids, now)) {
+                // rules created before they had an owner have nobody to book occurrences for
+                if (r.getUser() == null) {
+                    skipped("no_user");
+                    log.warn("Skipping recurring expense {} without a user", r.getId());
+                    continue;
+                }
+                if (r.getFrequency() == null) {
+                    skipped("no_frequency");
+                    continue;
+                }
 
-                switch (r.getFrequency().toLowerCase()) {
-                    case "daily" -> r.setNextDate(r.getNextDate().plusDays(1));
-                    case "weekly" -> r.setNextDate(r.getNextDate().plusWeeks(1));
-                    case "monthly" -> r.setNextDate(r.getNextDate().plusMonths(1));
-                    default -> {
-                        return;
+                List<Expense> occurrences = new ArrayList<>();
+                LocalDateTime next = r.getNextDate();
+                while (!next.isAfter(now) && occurrences.size() < MAX_OCCURRENCES_PER_RUN) {
+                    occurrences.add(occurrence(r, next));
+                    next = advance(next, r.getFrequency());
+                    if (next == null) {
+                        break;
                     }
                 }
 
-                safetyCounter++;
-                if (safetyCounter > 1000) {
-                    break;
+                if (next == null) {
+                    skipped("unknown_frequency");
+                    log.warn("Skipping recurring expense {} with unknown frequency '{}'", r.getId(), r.getFrequency());
+                    continue;
                 }
+
+                r.setNextDate(next);
+                byUser.computeIfAbsent(r.getUser().getId(), u -> new ArrayList<>()).addAll(occurrences);
             }
 
-            repo.save(r);
-        }
+            versions.bumpAll(byUser.keySet());
+
+            int count = 0;
+            for (Map.Entry<Long, List<Expense>> entry : byUser.entrySet()) {
+                expenseJdbcRepo.insertAll(entry.getKey(), entry.getValue());
+                rollupService.addAll(entry.getKey(), entry.getValue());
+                searchIndex.invalidate(entry.getKey());
+                analytics.invalidate(entry.getKey());
+                budgetTracker.addAll(entry.getKey(), entry.getValue());
+                count += entry.getValue().size();
+            }
+            return count;
+        });
+    }
+
+    private void skipped(String reason) {
+        registry.counter("recurring.rules.skipped", "reason", reason).increment();
+    }
+
+    private static LocalDateTime advance(LocalDateTime date, String frequency) {
+        return switch (frequency.toLowerCase()) {
+            case "daily" -> date.plusDays(1);
+            case "weekly" -> date.plusWeeks(1);
+            case "monthly" -> date.plusMonths(1);
+            default -> null;
+        };
+    }
+
+    private static Expense occurrence(RecurringExpense r, LocalDateTime date) {
+        Expense expense = new Expense();
+        expense.setTitle(r.getTitle());
+        expense.setAmount(r.getAmount());
+        expense.setCategory(r.getCategory());
+        expense.setCategoryId(r.getCategoryId());
+        expense.setNote(r.getNote());
+        expense.setTags(r.getTags());
+        expense.setDate(date);
+        expense.setActive(true);
+        return expense;
     }
-}
\ No newline at end of file
+}
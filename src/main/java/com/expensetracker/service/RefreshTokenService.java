@@ -0,0 +1,107 @@
+package com.expensetracker.service;
+
+import com.expensetracker.model.RefreshToken;
+import com.expensetracker.repository.RefreshTokenRepository;
+import com.expensetracker.security.TokenHash;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Issues opaque refresh tokens and rotates them on every use. Each login starts a
+ * family; a token that is presented again after it was rotated has leaked, so the
+ * whole family is revoked and its owner has to log in again. Rotated tokens are kept
+ * until their whole family has expired, so a replay of any of them is caught, however
+ * old it is. Tokens carry 256 random bits, so a plain
+ * SHA-256 is enough to store them and refreshing never pays for BCrypt.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final int TOKEN_BYTES = 32;
+    private static final int PURGE_CHUNK = 1000;
+
+    private final SecureRandom random = new SecureRandom();
+
+    @Autowired
+    private RefreshTokenRepository repo;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Value("${auth.refresh-token-ttl-days:30}")
+    private int ttlDays;
+
+    public record Rotation(Long userId, String token) {
+    }
+
+    @Transactional
+    public String issue(Long userId) {
+        return create(userId, UUID.randomUUID().toString(), LocalDateTime.now());
+    }
+
+    // an unknown, expired or replayed token comes back empty; a revoked family is
+    // committed here, so the caller can reject the request without undoing it
+    @Transactional
+    public Optional<Rotation> rotate(String token) {
+        LocalDateTime now = LocalDateTime.now();
+        RefreshToken current = repo.lockByHash(TokenHash.sha256(token)).orElse(null);
+        if (current == null) {
+            return Optional.empty();
+        }
+
+        // checked before expiry: a spent token is a leak even once it could no longer be used
+        if (current.getRotatedAt() != null) {
+            repo.deleteFamily(current.getFamilyId());
+            registry.counter("auth.refresh.reused").increment();
+            log.warn("Refresh token reused for user {}, revoked its family", current.getUserId());
+            return Optional.empty();
+        }
+        if (!current.getExpiresAt().isAfter(now)) {
+            return Optional.empty();
+        }
+
+        current.setRotatedAt(now);
+        return Optional.of(new Rotation(current.getUserId(), create(current.getUserId(), current.getFamilyId(), now)));
+    }
+
+    @Scheduled(cron = "0 30 4 * * ?")
+    @Transactional
+    public void purgeExpired() {
+        // a family expires with its newest token; until then its rotated tokens still catch replays
+        List<String> families = repo.findExpiredFamilies(LocalDateTime.now());
+        int purged = 0;
+        for (int from = 0; from < families.size(); from += PURGE_CHUNK) {
+            purged += repo.deleteFamilies(families.subList(from, Math.min(from + PURGE_CHUNK, families.size())));
+        }
+        log.info("Purged {} refresh tokens of {} expired families", purged, families.size());
+    }
+
+    private String create(Long userId, String familyId, LocalDateTime now) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken row = new RefreshToken();
+        row.setTokenHash(TokenHash.sha256(token));
+        row.setUserId(userId);
+        row.setFamilyId(familyId);
+        row.setExpiresAt(now.plusDays(ttlDays));
+        repo.save(row);
+        return token;
+    }
+}
@@ -0,0 +1,67 @@
+package com.expensetracker;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Drives the API through MockMvc against the in-memory H2 database of the test
+ * profile. Every test registers its own users, so classes sharing the context
+ * never see each other's data.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public abstract class ApiIntegrationTest {
+
+    @Autowired
+    protected MockMvc mvc;
+
+    @Autowired
+    protected ObjectMapper mapper;
+
+    // registers a fresh user and returns the login response with its access and refresh tokens
+    protected JsonNode login() throws Exception {
+        String body = json(Map.of("username", "user-" + UUID.randomUUID(), "password", "secret"));
+        mvc.perform(post("/auth/register").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk());
+        String tokens = mvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return mapper.readTree(tokens);
+    }
+
+    protected String bearer() throws Exception {
+        return "Bearer " + login().get("accessToken").asText();
+    }
+
+    protected String json(Object value) throws Exception {
+        return mapper.writeValueAsString(value);
+    }
+
+    protected JsonNode read(String body) throws Exception {
+        return mapper.readTree(body);
+    }
+
+    // POST /expenses stamps the current time, so expenses added here are dated now
+    protected long addExpense(String token, String title, double amount, String category) throws Exception {
+        String body = json(Map.of("title", title, "amount", amount, "category", category));
+        String saved = mvc.perform(post("/expenses").header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return read(saved).get("id").asLong();
+    }
+}
@@ -0,0 +1,54 @@
+package com.expensetracker.config;
+
+import com.expensetracker.ApiIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ConditionalGetInterceptorTest extends ApiIntegrationTest {
+
+    @Test
+    void answersNotModifiedUntilDataChanges() throws Exception {
+        String token = bearer();
+        addExpense(token, "Lunch", 10, "Food");
+
+        String etag = mvc.perform(get("/expenses").header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "private, no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        mvc.perform(get("/expenses").header(HttpHeaders.AUTHORIZATION, token)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        addExpense(token, "Dinner", 20, "Food");
+        String changed = mvc.perform(get("/expenses").header(HttpHeaders.AUTHORIZATION, token)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, changed);
+    }
+
+    @Test
+    void tagsDifferByUserAndAcceptHeader() throws Exception {
+        String token = bearer();
+        String etag = mvc.perform(get("/expenses").header(HttpHeaders.AUTHORIZATION, token))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(get("/expenses").header(HttpHeaders.AUTHORIZATION, bearer())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+        mvc.perform(get("/expenses").header(HttpHeaders.AUTHORIZATION, token)
+                        .header(HttpHeaders.ACCEPT, "application/x-jackson-smile")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+}
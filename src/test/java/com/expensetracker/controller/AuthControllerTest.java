@@ -0,0 +1,105 @@
+package com.expensetracker.controller;
+
+import com.expensetracker.ApiIntegrationTest;
+import com.expensetracker.model.RefreshToken;
+import com.expensetracker.repository.RefreshTokenRepository;
+import com.expensetracker.security.TokenHash;
+import com.expensetracker.service.RefreshTokenService;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class AuthControllerTest extends ApiIntegrationTest {
+
+    @Autowired
+    private RefreshTokenRepository refreshTokens;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Test
+    void refreshRotatesTokensAndKeepsTheRotatedOnes() throws Exception {
+        String first = login().get("refreshToken").asText();
+        String second = refreshToken(refresh(first).andExpect(status().isOk()));
+        JsonNode third = read(refresh(second).andExpect(status().isOk()));
+
+        mvc.perform(get("/expenses").header(HttpHeaders.AUTHORIZATION,
+                        "Bearer " + third.get("accessToken").asText()))
+                .andExpect(status().isOk());
+        assertEquals(3, family(first).size());
+    }
+
+    @Test
+    void reusingAnOlderRotatedTokenRevokesTheFamily() throws Exception {
+        String first = login().get("refreshToken").asText();
+        String second = refreshToken(refresh(first).andExpect(status().isOk()));
+        String third = refreshToken(refresh(second).andExpect(status().isOk()));
+
+        refresh(first).andExpect(status().isUnauthorized());
+        refresh(third).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void purgeDropsOnlyFamiliesWhoseNewestTokenExpired() throws Exception {
+        String expired = login().get("refreshToken").asText();
+        refresh(expired).andExpect(status().isOk());
+        String live = login().get("refreshToken").asText();
+        refresh(live).andExpect(status().isOk());
+
+        LocalDateTime past = LocalDateTime.now().minusDays(1);
+        List<RefreshToken> expiredFamily = family(expired);
+        expiredFamily.forEach(t -> t.setExpiresAt(past));
+        refreshTokens.saveAll(expiredFamily);
+        // a spent token past its own expiry still guards a family that is alive
+        RefreshToken spent = family(live).stream().filter(t -> t.getRotatedAt() != null).findFirst().orElseThrow();
+        spent.setExpiresAt(past);
+        refreshTokens.save(spent);
+
+        refreshTokenService.purgeExpired();
+
+        assertTrue(family(expired).isEmpty());
+        assertEquals(2, family(live).size());
+        refresh(live).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void unknownTokenIsUnauthorized() throws Exception {
+        refresh("not-a-token").andExpect(status().isUnauthorized());
+    }
+
+    // every row sharing the family of the given token
+    private List<RefreshToken> family(String token) {
+        List<RefreshToken> rows = refreshTokens.findAll();
+        return rows.stream().filter(t -> t.getTokenHash().equals(TokenHash.sha256(token)))
+                .findFirst()
+                .map(RefreshToken::getFamilyId)
+                .map(id -> rows.stream().filter(t -> t.getFamilyId().equals(id)).toList())
+                .orElse(List.of());
+    }
+
+    private ResultActions refresh(String token) throws Exception {
+        return mvc.perform(post("/auth/refresh").contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("refreshToken", token))));
+    }
+
+    private String refreshToken(ResultActions result) throws Exception {
+        return read(result).get("refreshToken").asText();
+    }
+
+    private JsonNode read(ResultActions result) throws Exception {
+        return mapper.readTree(result.andReturn().getResponse().getContentAsString());
+    }
+}
@@ -0,0 +1,44 @@
+package com.expensetracker.controller;
+
+import com.expensetracker.ApiIntegrationTest;
+import com.expensetracker.event.BudgetThresholdEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RecordApplicationEvents
+class BudgetControllerTest extends ApiIntegrationTest {
+
+    @Autowired
+    private ApplicationEvents events;
+
+    // the user never reads /budgets/status, so the tracker has no counters when the writes commit
+    @Test
+    void thresholdsAreReportedWithoutAStatusRead() throws Exception {
+        String token = bearer();
+        mvc.perform(post("/budgets").header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("category", "Food", "period", "MONTHLY", "limitAmount", 100))))
+                .andExpect(status().isOk());
+
+        addExpense(token, "Groceries", 50, "Food");
+        addExpense(token, "Dinner", 35, "Food");
+        addExpense(token, "Lunch", 10, "Food");
+        addExpense(token, "Market", 20, "Food");
+
+        List<BudgetThresholdEvent.Level> levels = events.stream(BudgetThresholdEvent.class)
+                .map(BudgetThresholdEvent::level)
+                .toList();
+        assertEquals(List.of(BudgetThresholdEvent.Level.WARNING, BudgetThresholdEvent.Level.EXCEEDED), levels);
+    }
+}
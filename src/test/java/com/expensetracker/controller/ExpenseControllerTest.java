@@ -0,0 +1,106 @@
+package com.expensetracker.controller;
+
+import com.expensetracker.ApiIntegrationTest;
+import com.expensetracker.security.JwtUtil;
+import com.expensetracker.service.ExpenseRollupService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ExpenseControllerTest extends ApiIntegrationTest {
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ExpenseRollupService rollupService;
+
+    @Test
+    void otherUsersExpensesAreNotTouchedByBulkWrites() throws Exception {
+        String owner = bearer();
+        String other = bearer();
+        long id = addExpense(owner, "Lunch", 12.5, "Food");
+
+        mvc.perform(post("/expenses/bulk/delete").header(HttpHeaders.AUTHORIZATION, other)
+                        .contentType(MediaType.APPLICATION_JSON).content(json(Map.of("ids", List.of(id)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(0));
+        mvc.perform(post("/expenses/bulk/recategorize").header(HttpHeaders.AUTHORIZATION, other)
+                        .contentType(MediaType.APPLICATION_JSON).content(json(Map.of("newCategory", "Travel"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(0));
+
+        mvc.perform(get("/expenses").header(HttpHeaders.AUTHORIZATION, owner))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].id").value(id))
+                .andExpect(jsonPath("$.items[0].category").value("Food"));
+    }
+
+    @Test
+    void recategorizeMovesOnlyTheMatchedRollupTotals() throws Exception {
+        String token = bearer();
+        // the bulk import keeps the given dates
+        String rows = "[{\"title\":\"Lunch\",\"amount\":10,\"category\":\"Food\",\"date\":\"2026-03-02T12:00:00\"},"
+                + "{\"title\":\"Dinner\",\"amount\":15,\"category\":\"Food\",\"date\":\"2026-03-02T19:00:00\"},"
+                + "{\"title\":\"Groceries\",\"amount\":40,\"category\":\"Food\",\"date\":\"2026-03-05\"},"
+                + "{\"title\":\"Train\",\"amount\":7,\"category\":\"Travel\",\"date\":\"2026-03-02T08:00:00\"}]";
+        mvc.perform(post("/expenses/bulk").header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON).content(rows))
+                .andExpect(jsonPath("$.imported").value(4));
+
+        mvc.perform(post("/expenses/bulk/recategorize").header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("category", "Food", "start", "2026-03-01", "end", "2026-03-03",
+                                "newCategory", "Travel"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(2));
+
+        Long userId = jwtUtil.verify(token.substring("Bearer ".length()))
+                .get(JwtUtil.USER_ID_CLAIM, Long.class);
+        Map<String, Double> totals = rollupService.getCategoryTotals(userId, LocalDate.of(2026, 3, 1),
+                LocalDate.of(2026, 3, 31));
+        assertEquals(Map.of("Food", 40.0, "Travel", 32.0), totals);
+        assertFalse(rollupService.getDailyTotals(userId, LocalDate.of(2026, 3, 2), LocalDate.of(2026, 3, 2))
+                .isEmpty());
+        assertEquals(32.0, rollupService.getTotal(userId, LocalDate.of(2026, 3, 2), LocalDate.of(2026, 3, 2),
+                null));
+    }
+
+    @Test
+    void bulkUpdatesRequireTheirTargetField() throws Exception {
+        String token = bearer();
+        addExpense(token, "Lunch", 12.5, "Food");
+
+        mvc.perform(post("/expenses/bulk/recategorize").header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("newCategory is required"));
+        mvc.perform(post("/expenses/bulk/retag").header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("tags is required"));
+
+        mvc.perform(post("/expenses/bulk/retag").header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON).content(json(Map.of("tags", "work"))))
+                .andExpect(jsonPath("$.updated").value(1));
+        mvc.perform(post("/expenses/bulk/retag").header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON).content(json(Map.of("tags", ""))))
+                .andExpect(jsonPath("$.updated").value(1));
+        mvc.perform(get("/expenses").header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(jsonPath("$.items[0].category").value("Food"))
+                .andExpect(jsonPath("$.items[0].tags").value(""));
+    }
+}
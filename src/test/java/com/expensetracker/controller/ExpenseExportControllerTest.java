@@ -0,0 +1,50 @@
+package com.expensetracker.controller;
+
+import com.expensetracker.ApiIntegrationTest;
+import com.expensetracker.service.ExpenseArchiveService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ExpenseExportControllerTest extends ApiIntegrationTest {
+
+    @Autowired
+    private ExpenseArchiveService archiveService;
+
+    @Test
+    void exportMergesArchivedRowsInDateOrder() throws Exception {
+        String token = bearer();
+        String body = "[{\"title\":\"Rent\",\"amount\":\"500\",\"category\":\"Home\",\"date\":\"2020-03-01\"},"
+                + "{\"title\":\"Taxi\",\"amount\":\"18\",\"category\":\"Travel\",\"date\":\"2026-02-01\"},"
+                + "{\"title\":\"Lunch\",\"amount\":\"9\",\"category\":\"Food\",\"date\":\"2020-06-01\"}]";
+        mvc.perform(post("/expenses/bulk").header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(jsonPath("$.imported").value(3));
+
+        archiveService.archive(LocalDateTime.now());
+        mvc.perform(get("/expenses").header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(jsonPath("$.items.length()").value(1));
+
+        MvcResult started = mvc.perform(get("/expenses/export").param("format", "csv")
+                        .header(HttpHeaders.AUTHORIZATION, token))
+                .andReturn();
+        String csv = mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> titles = csv.lines().skip(1).map(line -> line.split(",")[2]).toList();
+        assertEquals(List.of("Rent", "Lunch", "Taxi"), titles);
+    }
+}
@@ -0,0 +1,72 @@
+package com.expensetracker.controller;
+
+import com.expensetracker.ApiIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ExpenseImportControllerTest extends ApiIntegrationTest {
+
+    @Test
+    void bulkJsonImportRejectsBadRowsAndKeepsTheRest() throws Exception {
+        String token = bearer();
+        String body = "[{\"title\":\"Taxi\",\"amount\":\"18.40\",\"category\":\"Travel\",\"date\":\"2026-02-01\"},"
+                + "42,"
+                + "{\"title\":\"Broken\",\"amount\":\"NaN\",\"category\":\"Food\"},"
+                + "{\"title\":\"Tea\",\"amount\":3,\"category\":\"Food\",\"date\":\"2026-02-02T08:30:00\"}]";
+
+        mvc.perform(post("/expenses/bulk").header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.failed").value(2))
+                .andExpect(jsonPath("$.errors[0].row").value(2))
+                .andExpect(jsonPath("$.errors[1].row").value(3));
+
+        mvc.perform(get("/expenses").header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(jsonPath("$.items.length()").value(2));
+    }
+
+    @Test
+    void bulkCsvImportReportsRowsByLine() throws Exception {
+        String token = bearer();
+        String body = "title,amount,category,date\nBus,2.5,Travel,2026-02-03\nBad,abc,Food,2026-02-03\n";
+
+        mvc.perform(post("/expenses/bulk").header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType("text/csv").content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.errors[0].row").value(2));
+    }
+
+    @Test
+    void bulkImportRejectsOverlongTextOnItsOwn() throws Exception {
+        String token = bearer();
+        String body = "[{\"title\":\"Lunch\",\"amount\":\"12\",\"category\":\"Food\"},"
+                + "{\"title\":\"" + "x".repeat(256) + "\",\"amount\":\"5\",\"category\":\"Food\"},"
+                + "{\"title\":\"Dinner\",\"amount\":\"20\",\"category\":\"Food\"}]";
+
+        mvc.perform(post("/expenses/bulk").header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.errors[0].row").value(2))
+                .andExpect(jsonPath("$.errors[0].message").value(startsWith("title is longer")));
+    }
+
+    @Test
+    void bulkJsonImportRejectsUnterminatedArray() throws Exception {
+        mvc.perform(post("/expenses/bulk").header(HttpHeaders.AUTHORIZATION, bearer())
+                        .contentType(MediaType.APPLICATION_JSON).content("[{\"amount\":\"1\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value(startsWith("Malformed document")));
+    }
+}
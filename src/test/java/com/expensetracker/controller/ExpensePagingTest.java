@@ -0,0 +1,62 @@
+package com.expensetracker.controller;
+
+import com.expensetracker.ApiIntegrationTest;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ExpensePagingTest extends ApiIntegrationTest {
+
+    @Test
+    void cursorPagesReturnEveryExpenseOnceNewestFirst() throws Exception {
+        String token = bearer();
+        List<Long> added = new ArrayList<>();
+        for (int i = 1; i <= 7; i++) {
+            added.add(0, addExpense(token, "Item " + i, i, "Food"));
+        }
+
+        List<Long> seen = walk(token, "/expenses");
+        assertEquals(added, seen);
+        assertEquals(seen.size(), new HashSet<>(seen).size());
+    }
+
+    @Test
+    void sortedPagesFollowTheSortKey() throws Exception {
+        String token = bearer();
+        List<Long> byAmount = new ArrayList<>();
+        for (double amount : new double[] { 30, 10, 50, 20, 40 }) {
+            byAmount.add(addExpense(token, "Item " + amount, amount, "Food"));
+        }
+        // ascending amount: 10, 20, 30, 40, 50
+        List<Long> expected = List.of(byAmount.get(1), byAmount.get(3), byAmount.get(0), byAmount.get(4),
+                byAmount.get(2));
+
+        assertEquals(expected, walk(token, "/expenses/sorted?sortBy=amount&order=asc"));
+    }
+
+    private List<Long> walk(String token, String url) throws Exception {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            MockHttpServletRequestBuilder request = get(url).header(HttpHeaders.AUTHORIZATION, token)
+                    .param("size", "2");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            JsonNode page = read(mvc.perform(request).andExpect(status().isOk()).andReturn()
+                    .getResponse().getContentAsString());
+            page.get("items").forEach(item -> seen.add(item.get("id").asLong()));
+            cursor = page.get("hasMore").asBoolean() ? page.get("nextCursor").asText() : null;
+        } while (cursor != null);
+        return seen;
+    }
+}
@@ -0,0 +1,85 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// the ownership checks every write path relies on: another user's ids behave like missing ones
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class ExpenseRepositoryTest {
+
+    @Autowired
+    private ExpenseRepository repo;
+
+    @Autowired
+    private UserRepository users;
+
+    private Long owner;
+    private Long other;
+    private List<Long> ids;
+
+    @BeforeEach
+    void seed() {
+        owner = user("owner");
+        other = user("other");
+        ids = List.of(expense(owner, "Lunch", 12), expense(owner, "Taxi", 30));
+    }
+
+    @Test
+    void lockOwnedSkipsOtherUsersIds() {
+        assertTrue(repo.lockOwned(ids, other).isEmpty());
+        assertEquals(2, repo.lockOwned(ids, owner).size());
+    }
+
+    @Test
+    void lockMatchingOnlySeesTheCallersRows() {
+        assertTrue(repo.lockMatching(other, null, null, null, null, null).isEmpty());
+        assertEquals(1, repo.lockMatching(owner, null, null, null, 20.0, null).size());
+    }
+
+    @Test
+    void softDeleteOwnedLeavesOtherUsersRows() {
+        assertEquals(0, repo.softDeleteOwned(ids, other));
+        assertEquals(2, repo.findByUserId(owner).size());
+
+        assertEquals(2, repo.softDeleteOwned(ids, owner));
+        assertEquals(0, repo.softDeleteOwned(ids, owner));
+    }
+
+    @Test
+    void updateOwnedLeavesOtherUsersRows() {
+        Long id = ids.get(0);
+        assertEquals(0, repo.updateOwned(id, other, "Stolen", 1, "Food", null, null, null, null));
+        assertEquals(1, repo.updateOwned(id, owner, "Brunch", 14, "Food", null,
+                repo.findById(id).orElseThrow().getDate(), null, null));
+    }
+
+    private Long user(String name) {
+        User user = new User();
+        user.setUsername(name + "-" + System.nanoTime());
+        user.setPassword("-");
+        user.setRole("ROLE_USER");
+        return users.save(user).getId();
+    }
+
+    private Long expense(Long userId, String title, double amount) {
+        Expense e = new Expense();
+        e.setTitle(title);
+        e.setAmount(amount);
+        e.setCategory("Food");
+        e.setUser(users.getReferenceById(userId));
+        return repo.saveAndFlush(e).getId();
+    }
+}
@@ -0,0 +1,121 @@
+package com.expensetracker.security;
+
+import com.expensetracker.ApiIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// buckets never refill within a test, and each test uses its own client address
+@TestPropertySource(properties = {
+        "ratelimit.enabled=true",
+        "ratelimit.auth.per-second=0.001", "ratelimit.auth.burst=3",
+        "ratelimit.refresh.per-second=0.001", "ratelimit.refresh.burst=2",
+        "ratelimit.summaries.per-second=0.001", "ratelimit.summaries.burst=2"
+})
+class RateLimitFilterTest extends ApiIntegrationTest {
+
+    @Test
+    void classifiesRoutesIntoGroups() {
+        assertEquals(RateLimitFilter.RouteGroup.AUTH, RateLimitFilter.classify("POST", "/auth/login"));
+        assertEquals(RateLimitFilter.RouteGroup.REFRESH, RateLimitFilter.classify("POST", "/auth/refresh"));
+        assertEquals(RateLimitFilter.RouteGroup.SUMMARIES, RateLimitFilter.classify("GET", "/expenses/dashboard"));
+        assertEquals(RateLimitFilter.RouteGroup.SUMMARIES, RateLimitFilter.classify("GET", "/expenses/trends"));
+        assertEquals(RateLimitFilter.RouteGroup.WRITES, RateLimitFilter.classify("POST", "/expenses"));
+        assertEquals(RateLimitFilter.RouteGroup.READS, RateLimitFilter.classify("GET", "/expenses"));
+    }
+
+    @Test
+    void authBeyondTheBurstGets429WithRetryAfter() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mvc.perform(register("10.0.0.1")).andExpect(status().isOk());
+        }
+        mvc.perform(register("10.0.0.1"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER))
+                .andExpect(jsonPath("$.error").value("Too many requests"));
+
+        // another client address has its own bucket
+        mvc.perform(register("10.0.0.2")).andExpect(status().isOk());
+    }
+
+    @Test
+    void refreshIsNotThrottledByTheLoginBucket() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mvc.perform(register("10.0.1.1")).andExpect(status().isOk());
+        }
+        mvc.perform(register("10.0.1.1")).andExpect(status().isTooManyRequests());
+
+        for (int i = 0; i < 2; i++) {
+            mvc.perform(refresh("10.0.1.1")).andExpect(status().isUnauthorized());
+        }
+        mvc.perform(refresh("10.0.1.1")).andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    void summariesAreLimitedPerUser() throws Exception {
+        String token = bearer();
+        for (int i = 0; i < 2; i++) {
+            mvc.perform(get("/expenses/dashboard").header(HttpHeaders.AUTHORIZATION, token))
+                    .andExpect(status().isOk());
+        }
+        mvc.perform(get("/expenses/dashboard").header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isTooManyRequests());
+
+        // plain reads draw on a different bucket
+        mvc.perform(get("/expenses").header(HttpHeaders.AUTHORIZATION, token)).andExpect(status().isOk());
+    }
+
+    @Test
+    void encodedPathsAreClassifiedAfterDecoding() throws Exception {
+        String token = bearerFrom("10.0.2.1");
+        URI daily = URI.create("/expenses/%73ummary/daily?start=2026-01-01&end=2026-01-31");
+        for (int i = 0; i < 2; i++) {
+            mvc.perform(get(daily).header(HttpHeaders.AUTHORIZATION, token)).andExpect(status().isOk());
+        }
+        mvc.perform(get(daily).header(HttpHeaders.AUTHORIZATION, token)).andExpect(status().isTooManyRequests());
+        mvc.perform(get(URI.create("/expenses/%73earch?q=tea")).header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    // logs in from its own address, so the login does not draw on the shared default address's bucket
+    private String bearerFrom(String address) throws Exception {
+        String body = json(Map.of("username", "user-" + UUID.randomUUID(), "password", "secret"));
+        mvc.perform(from(address, post("/auth/register").contentType(MediaType.APPLICATION_JSON).content(body)))
+                .andExpect(status().isOk());
+        String tokens = mvc.perform(from(address, post("/auth/login").contentType(MediaType.APPLICATION_JSON)
+                        .content(body)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return "Bearer " + read(tokens).get("accessToken").asText();
+    }
+
+    private MockHttpServletRequestBuilder register(String address) throws Exception {
+        return from(address, post("/auth/register").contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("username", "user-" + UUID.randomUUID(), "password", "secret"))));
+    }
+
+    private MockHttpServletRequestBuilder refresh(String address) throws Exception {
+        return from(address, post("/auth/refresh").contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("refreshToken", "unknown"))));
+    }
+
+    private static MockHttpServletRequestBuilder from(String address, MockHttpServletRequestBuilder request) {
+        return request.with(r -> {
+            r.setRemoteAddr(address);
+            return r;
+        });
+    }
+}
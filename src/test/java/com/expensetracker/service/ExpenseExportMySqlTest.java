@@ -0,0 +1,122 @@
+package com.expensetracker.service;
+
+import com.expensetracker.MySqlIntegrationTest;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.User;
+import com.expensetracker.repository.ExpenseJdbcRepository;
+import com.expensetracker.repository.UserRepository;
+import com.expensetracker.security.AuthenticatedUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExpenseExportMySqlTest extends MySqlIntegrationTest {
+
+    // about 150 MB of column data, far more than a streamed export may hold at once
+    private static final int ROWS = 200_000;
+    private static final int SEED_CHUNK = 5_000;
+    private static final long MAX_RETAINED_BYTES = 32L * 1024 * 1024;
+
+    @Autowired
+    private ExpenseExportService exportService;
+
+    @Autowired
+    private ExpenseJdbcRepository jdbcRepo;
+
+    @Autowired
+    private UserRepository users;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void exportStreamsLargeUserThroughServerSideCursor() throws Exception {
+        User user = new User();
+        user.setUsername("export-" + System.nanoTime());
+        user.setPassword("-");
+        user.setRole("ROLE_USER");
+        Long userId = users.save(user).getId();
+
+        String filler = "x".repeat(240);
+        LocalDateTime date = LocalDateTime.of(2024, 1, 1, 12, 0);
+        for (int from = 0; from < ROWS; from += SEED_CHUNK) {
+            List<Expense> chunk = new ArrayList<>(SEED_CHUNK);
+            for (int i = from; i < from + SEED_CHUNK; i++) {
+                Expense e = new Expense();
+                e.setTitle("title " + i + " " + filler);
+                e.setAmount(i % 100);
+                e.setNote(filler);
+                e.setTags(filler);
+                e.setDate(date.plusSeconds(i));
+                chunk.add(e);
+            }
+            jdbcRepo.insertAll(userId, chunk);
+        }
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new AuthenticatedUser(userId, user.getUsername(), "ROLE_USER"), null, List.of()));
+
+        long fetchesBefore = statementFetches();
+        long heapBefore = usedHeapAfterGc();
+        LineCounter out = new LineCounter(ROWS / 2);
+        exportService.export("csv", null, null).writeTo(out);
+
+        // header plus one line per expense, every one of them sent by the driver in cursor fetches
+        assertEquals(ROWS + 1, out.lines);
+        assertTrue(statementFetches() - fetchesBefore >= ROWS / 1000,
+                "expected the export to read through COM_STMT_FETCH");
+        assertTrue(out.heapHalfway - heapBefore < MAX_RETAINED_BYTES,
+                "export held " + (out.heapHalfway - heapBefore) + " bytes half way through");
+    }
+
+    private long statementFetches() {
+        return jdbc.queryForObject("SHOW GLOBAL STATUS LIKE 'Com_stmt_fetch'", (rs, i) -> rs.getLong(2));
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    // counts lines and samples the live heap once half of the rows have been written
+    private static class LineCounter extends OutputStream {
+        final long sampleAt;
+        long lines;
+        long heapHalfway;
+
+        LineCounter(long sampleAt) {
+            this.sampleAt = sampleAt;
+        }
+
+        @Override
+        public void write(int b) {
+            if (b == '\n' && ++lines == sampleAt) {
+                heapHalfway = usedHeapAfterGc();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.expensetracker.service;
+
+import com.expensetracker.MySqlIntegrationTest;
+import com.expensetracker.dto.MonthTrend;
+import com.expensetracker.model.User;
+import com.expensetracker.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ExpenseTrendsMySqlTest extends MySqlIntegrationTest {
+
+    private static final double EPSILON = 1e-9;
+
+    @Autowired
+    private ExpenseRollupService rollupService;
+
+    @Autowired
+    private CategoryService categories;
+
+    @Autowired
+    private UserRepository users;
+
+    @Test
+    @Transactional
+    void monthlyTrendsFillEmptyMonthsAndAverageOverCalendarMonths() {
+        User user = new User();
+        user.setUsername("trends-" + System.nanoTime());
+        user.setPassword("-");
+        user.setRole("ROLE_USER");
+        Long userId = users.save(user).getId();
+
+        Long food = categories.resolve(userId, "Food");
+        Long travel = categories.resolve(userId, "Travel");
+        // November only feeds the trailing averages; travel stopped before the range and is left out
+        rollupService.apply(userId, LocalDate.of(2024, 11, 20), food, 60, 1);
+        rollupService.apply(userId, LocalDate.of(2025, 1, 3), food, 70, 1);
+        rollupService.apply(userId, LocalDate.of(2025, 1, 28), food, 30, 1);
+        rollupService.apply(userId, LocalDate.of(2025, 2, 14), food, 50, 1);
+        rollupService.apply(userId, LocalDate.of(2025, 4, 1), food, 30, 1);
+        rollupService.apply(userId, LocalDate.of(2024, 10, 5), travel, 25, 1);
+
+        Map<String, List<MonthTrend>> trends = rollupService.getMonthlyTrends(userId, YearMonth.of(2025, 1), 4);
+
+        assertEquals(List.of("Food"), List.copyOf(trends.keySet()));
+        List<MonthTrend> months = trends.get("Food");
+        assertEquals(4, months.size());
+        assertMonth(months.get(0), "2025-01", 100, 100, 160 / 3.0, 160 / 6.0);
+        assertMonth(months.get(1), "2025-02", 50, -50, 50, 35);
+        assertMonth(months.get(2), "2025-03", 0, -50, 50, 35);
+        assertMonth(months.get(3), "2025-04", 30, 30, 80 / 3.0, 40);
+    }
+
+    private static void assertMonth(MonthTrend trend, String month, double total, double change, double avg3,
+            double avg6) {
+        assertEquals(month, trend.month());
+        assertEquals(total, trend.total(), EPSILON);
+        assertEquals(change, trend.change(), EPSILON);
+        assertEquals(avg3, trend.movingAverage3(), EPSILON);
+        assertEquals(avg6, trend.movingAverage6(), EPSILON);
+    }
+}